@@ -0,0 +1,98 @@
+package com.example.demo.config;
+
+import java.lang.reflect.Method;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.example.demo.service.EveryNode;
+import com.example.demo.service.JobLeaseService;
+
+/**
+ * Runs each {@code @Scheduled} method in the service package under a
+ * {@link JobLeaseService} lease named after its class and method, so it
+ * fires on one node per cluster. Methods marked {@link EveryNode} are left
+ * alone.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    private static final String JOB_PACKAGE = "com.example.demo.service";
+
+    // scheduling.enabled=false keeps the jobs quiet, e.g. in tests that count statements
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnBooleanProperty(name = "scheduling.enabled", matchIfMissing = true)
+    static class Enabled {
+    }
+
+    // static, so it is registered before ordinary beans are created
+    @Bean
+    public static AbstractBeanFactoryAwareAdvisingPostProcessor scheduledJobLeasePostProcessor() {
+        return new ScheduledJobLeasePostProcessor();
+    }
+
+    private static final class ScheduledJobLeasePostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+        private BeanFactory beanFactory;
+        private JobLeaseService leases;
+
+        private ScheduledJobLeasePostProcessor() {
+            MethodInterceptor interceptor = invocation -> {
+                Method method = invocation.getMethod();
+                if (AnnotatedElementUtils.hasAnnotation(method, EveryNode.class)) {
+                    return invocation.proceed();
+                }
+
+                Class<?> target = AopUtils.getTargetClass(invocation.getThis());
+                String name = target.getSimpleName() + "." + method.getName();
+
+                try (JobLeaseService.Lease lease = leases().acquire(name)) {
+                    if (lease == null) {
+                        return null;
+                    }
+                    return invocation.proceed();
+                }
+            };
+
+            this.advisor = new DefaultPointcutAdvisor(
+                    AnnotationMatchingPointcut.forMethodAnnotation(Scheduled.class), interceptor);
+            setBeforeExistingAdvisors(true);
+            setProxyTargetClass(true);
+            // after the auto-proxy creator, ahead of the scheduling post-processor
+            setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        }
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) {
+            super.setBeanFactory(beanFactory);
+            this.beanFactory = beanFactory;
+        }
+
+        @Override
+        protected boolean isEligible(Class<?> targetClass) {
+            String pkg = targetClass.getPackageName();
+            return (pkg.equals(JOB_PACKAGE) || pkg.startsWith(JOB_PACKAGE + "."))
+                    && super.isEligible(targetClass);
+        }
+
+        // looked up on first use, so the lease service isn't built this early
+        private JobLeaseService leases() {
+            if (leases == null) {
+                leases = beanFactory.getBean(JobLeaseService.class);
+            }
+            return leases;
+        }
+    }
+}
@@ -39,11 +39,13 @@ public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Excepti
         // 👇 Allow patients to access their appointment endpoints
         .requestMatchers(
             "/api/patient/appointments/**",
-            "/api/appointments/available"
+            "/api/appointments/available",
+            "/api/appointments/earliest"
         ).hasRole("PATIENT")
 
     // Admin
     .requestMatchers("/api/admin/**").hasRole("ADMIN")
+    .requestMatchers("/actuator/**").hasRole("ADMIN")
 
     // Doctor endpoints (after patient special cases)
     .requestMatchers("/api/doctor/**").hasRole("DOCTOR")
@@ -0,0 +1,39 @@
+package com.example.demo.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.dto.BroadcastRequest;
+import com.example.demo.service.BroadcastService;
+
+@RestController
+@RequestMapping("/api/admin/broadcast")
+public class AdminBroadcastController {
+
+    private final BroadcastService broadcastService;
+
+    public AdminBroadcastController(BroadcastService broadcastService) {
+        this.broadcastService = broadcastService;
+    }
+
+    // 🔹 POST /api/admin/broadcast, fans out in the background
+    @PostMapping
+    public ResponseEntity<?> broadcast(@RequestBody BroadcastRequest request,
+                                       Authentication authentication) {
+
+        return ResponseEntity.ok(broadcastService.start(request, authentication.getName()));
+    }
+
+    // 🔹 GET /api/admin/broadcast/{id}
+    @GetMapping("/{id}")
+    public ResponseEntity<?> progress(@PathVariable Long id) {
+
+        return ResponseEntity.ok(broadcastService.progress(id));
+    }
+}
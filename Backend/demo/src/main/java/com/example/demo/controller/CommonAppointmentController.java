@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.service.AppointmentService;
+import com.example.demo.service.SlotSearchService;
 
     
     @RestController
@@ -17,9 +18,12 @@ import com.example.demo.service.AppointmentService;
 public class CommonAppointmentController {
 
     private final AppointmentService appointmentService;
+    private final SlotSearchService slotSearchService;
 
-    public CommonAppointmentController(AppointmentService appointmentService) {
+    public CommonAppointmentController(AppointmentService appointmentService,
+                                       SlotSearchService slotSearchService) {
         this.appointmentService = appointmentService;
+        this.slotSearchService = slotSearchService;
     }
 
     @GetMapping("/available")
@@ -35,6 +39,42 @@ public class CommonAppointmentController {
         );
     }
 
+    // Free slots for every day in [from, to], keyed by date
+    @GetMapping(value = "/available", params = {"from", "to"})
+    public ResponseEntity<?> getAvailableSlotsInRange(
+            @RequestParam Long doctorId,
+            @RequestParam String from,
+            @RequestParam String to) {
+
+        return ResponseEntity.ok(
+                appointmentService.getAvailableSlots(
+                        doctorId,
+                        LocalDate.parse(from),
+                        LocalDate.parse(to)
+                )
+        );
+    }
+
+    // Earliest open slots across all doctors of a specialization
+    @GetMapping("/earliest")
+    public ResponseEntity<?> getEarliestSlots(
+            @RequestParam String specialization,
+            @RequestParam(required = false) Long hospitalId,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) Integer limit) {
+
+        return ResponseEntity.ok(
+                slotSearchService.findEarliest(
+                        specialization,
+                        hospitalId,
+                        LocalDate.parse(from),
+                        LocalDate.parse(to),
+                        limit
+                )
+        );
+    }
+
    @GetMapping("/completed")
 public ResponseEntity<?> getCompleted(Authentication auth) {
     return ResponseEntity.ok(
@@ -1,5 +1,7 @@
 package com.example.demo.controller;
 
+import java.time.LocalDate;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,8 +10,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.dto.BatchStatusRequest;
 import com.example.demo.dto.RescheduleRequest;
 import com.example.demo.dto.UpdateStatusRequest;
 import com.example.demo.service.AppointmentService;
@@ -35,6 +39,30 @@ public class DoctorAppointmentController {
         );
     }
 
+    // One page of the doctor's appointments, newest first
+    @GetMapping("/page")
+    public ResponseEntity<?> getDoctorAppointmentPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+
+        String doctorEmail = authentication.getName();
+
+        return ResponseEntity.ok(
+                appointmentService.getDoctorAppointmentPage(
+                        doctorEmail,
+                        status,
+                        from != null ? LocalDate.parse(from) : null,
+                        to != null ? LocalDate.parse(to) : null,
+                        cursor,
+                        limit
+                )
+        );
+    }
+
     // Today's appointments
     @GetMapping("/today")
     public ResponseEntity<?> getTodayAppointments(Authentication authentication) {
@@ -64,6 +92,19 @@ public class DoctorAppointmentController {
         return ResponseEntity.ok("Appointment status updated");
     }
 
+    // Update status of many appointments at once, with a result per appointment
+    @PutMapping("/status")
+    public ResponseEntity<?> updateStatuses(
+            @RequestBody BatchStatusRequest request,
+            Authentication authentication) {
+
+        String doctorEmail = authentication.getName();
+
+        return ResponseEntity.ok(
+                appointmentService.updateAppointmentStatuses(request, doctorEmail)
+        );
+    }
+
     @PostMapping("/reschedule")
 public ResponseEntity<?> rescheduleAppointment(
         @RequestBody RescheduleRequest request,
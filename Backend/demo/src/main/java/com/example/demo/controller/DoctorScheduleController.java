@@ -0,0 +1,43 @@
+package com.example.demo.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.dto.DoctorScheduleRequest;
+import com.example.demo.service.DoctorScheduleService;
+
+@RestController
+@RequestMapping("/api/doctor/schedule")
+public class DoctorScheduleController {
+
+    private final DoctorScheduleService doctorScheduleService;
+
+    public DoctorScheduleController(DoctorScheduleService doctorScheduleService) {
+        this.doctorScheduleService = doctorScheduleService;
+    }
+
+    // 🔹 GET /api/doctor/schedule
+    @GetMapping
+    public ResponseEntity<?> getMySchedule(Authentication authentication) {
+
+        String email = authentication.getName();
+
+        return ResponseEntity.ok(doctorScheduleService.getMySchedule(email));
+    }
+
+    // 🔹 PUT /api/doctor/schedule
+    @PutMapping
+    public ResponseEntity<?> updateMySchedule(
+            @RequestBody DoctorScheduleRequest request,
+            Authentication authentication) {
+
+        String email = authentication.getName();
+
+        return ResponseEntity.ok(doctorScheduleService.updateMySchedule(email, request));
+    }
+}
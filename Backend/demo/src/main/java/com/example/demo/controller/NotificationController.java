@@ -1,19 +1,25 @@
 package com.example.demo.controller;
 
 import java.security.Principal;
-import java.util.List;
+import java.time.LocalDateTime;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.example.demo.entity.Notification;
+import com.example.demo.dto.NotificationPage;
 import com.example.demo.entity.User;
 import com.example.demo.service.NotificationService;
+import com.example.demo.service.NotificationStreamService;
 import com.example.demo.repository.NotificationRepository;
 import com.example.demo.repository.UserRepository;
 
@@ -24,48 +30,49 @@ public class NotificationController {
     private final NotificationService notificationService;
     private final UserRepository userRepository;   
     private final NotificationRepository notificationRepository;
+    private final NotificationStreamService notificationStreamService;
 
-    public NotificationController(NotificationService notificationService, UserRepository userRepository, NotificationRepository notificationRepository) {
+    public NotificationController(NotificationService notificationService, UserRepository userRepository, NotificationRepository notificationRepository,
+                                  NotificationStreamService notificationStreamService) {
         this.notificationService = notificationService;
         this.userRepository = userRepository;
         this.notificationRepository = notificationRepository;
+        this.notificationStreamService = notificationStreamService;
     }
 
     @PostMapping("/mark-all-read")
 public ResponseEntity<?> markAllAsRead(Authentication authentication) {
 
-    String email = authentication.getName();
-
-    User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-    List<Notification> list =
-            notificationRepository.findByRecipientOrderByCreatedAtDesc(user);
-
-    for (Notification n : list) {
-        n.setReadStatus(true);
-    }
-
-    notificationRepository.saveAll(list);
+    notificationService.markAllAsRead(authentication.getName());
 
     return ResponseEntity.ok("All notifications marked as read");
 }
+
+    // e.g. /mark-read-up-to?createdAt=2026-01-31T09:15:00&id=1234
+    @PostMapping("/mark-read-up-to")
+    public ResponseEntity<Integer> markReadUpTo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAt,
+            @RequestParam(required = false) Long id,
+            Principal principal) {
+        return ResponseEntity.ok(notificationService.markReadUpTo(principal.getName(), createdAt, id));
+    }
     @GetMapping("/unread-count")
 public ResponseEntity<Long> getUnreadCount(Authentication authentication) {
 
-    String email = authentication.getName();
-
-    User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-    long count = notificationRepository.countByRecipientAndReadStatusFalse(user);
-
-    return ResponseEntity.ok(count);
+    return ResponseEntity.ok(notificationService.getUnreadCount(authentication.getName()));
 }
+    // Live feed; a reconnect sends Last-Event-ID and gets what it missed
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Principal principal,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return notificationStreamService.subscribe(principal.getName(), lastEventId);
+    }
+
     @GetMapping
-    public ResponseEntity<List<Notification>> myNotifications(Principal principal) {
-        List<Notification> list = notificationService.getNotificationsForUser(principal.getName());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<NotificationPage> myNotifications(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            Principal principal) {
+        return ResponseEntity.ok(notificationService.getNotificationPage(principal.getName(), cursor, limit));
     }
 
     
@@ -1,24 +1,34 @@
 package com.example.demo.controller;
 
+import java.time.LocalDate;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.dto.AppointmentRequest;
+import com.example.demo.dto.WaitlistRequest;
 import com.example.demo.service.AppointmentService;
+import com.example.demo.service.WaitlistService;
 
     @RestController
 @RequestMapping("/api/patient/appointments")
 public class PatientAppointmentController {
 
     private final AppointmentService appointmentService;
+    private final WaitlistService waitlistService;
 
-    public PatientAppointmentController(AppointmentService appointmentService) {
+    public PatientAppointmentController(AppointmentService appointmentService,
+                                        WaitlistService waitlistService) {
         this.appointmentService = appointmentService;
+        this.waitlistService = waitlistService;
     }
 
     // Book appointment
@@ -34,6 +44,42 @@ public class PatientAppointmentController {
         return ResponseEntity.ok("Appointment booked successfully (Pending approval)");
     }
 
+    // Hold a slot for a short while before booking it
+    @PostMapping("/hold")
+    public ResponseEntity<?> holdSlot(@RequestBody AppointmentRequest request) {
+
+        return ResponseEntity.ok(appointmentService.holdSlot(request));
+    }
+
+    // Join a doctor's waitlist for a date range
+    @PostMapping("/waitlist")
+    public ResponseEntity<?> joinWaitlist(
+            @RequestBody WaitlistRequest request,
+            Authentication authentication) {
+
+        return ResponseEntity.ok(
+                waitlistService.join(request, authentication.getName())
+        );
+    }
+
+    @GetMapping("/waitlist")
+    public ResponseEntity<?> getMyWaitlist(Authentication authentication) {
+
+        return ResponseEntity.ok(
+                waitlistService.getMyEntries(authentication.getName())
+        );
+    }
+
+    @DeleteMapping("/waitlist/{id}")
+    public ResponseEntity<?> leaveWaitlist(
+            @PathVariable Long id,
+            Authentication authentication) {
+
+        waitlistService.leave(id, authentication.getName());
+
+        return ResponseEntity.ok("Removed from waitlist");
+    }
+
     // Get all patient appointments
     @GetMapping
     public ResponseEntity<?> getPatientAppointments(Authentication authentication) {
@@ -45,4 +91,28 @@ public class PatientAppointmentController {
         );
     }
 
+    // One page of the patient's appointments, newest first
+    @GetMapping("/page")
+    public ResponseEntity<?> getPatientAppointmentPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+
+        String patientEmail = authentication.getName();
+
+        return ResponseEntity.ok(
+                appointmentService.getPatientAppointmentPage(
+                        patientEmail,
+                        status,
+                        from != null ? LocalDate.parse(from) : null,
+                        to != null ? LocalDate.parse(to) : null,
+                        cursor,
+                        limit
+                )
+        );
+    }
+
 }
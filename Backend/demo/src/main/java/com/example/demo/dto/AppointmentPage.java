@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public class AppointmentPage {
+
+    private List<AppointmentResponse> items;
+    private String nextCursor;
+
+    public AppointmentPage(List<AppointmentResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AppointmentResponse> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
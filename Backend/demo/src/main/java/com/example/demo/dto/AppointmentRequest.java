@@ -9,6 +9,9 @@ public class AppointmentRequest {
     private LocalDate date;
     private LocalTime time;
     private String reason;
+    private String holdToken;
+    // optional, defaults to the doctor's slot length
+    private Integer durationMinutes;
     public Long getDoctorId() {
         return doctorId;
     }
@@ -33,4 +36,16 @@ public class AppointmentRequest {
     public void setReason(String reason) {
         this.reason = reason;
     }
+    public String getHoldToken() {
+        return holdToken;
+    }
+    public void setHoldToken(String holdToken) {
+        this.holdToken = holdToken;
+    }
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
 }
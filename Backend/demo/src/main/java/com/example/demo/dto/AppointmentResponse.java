@@ -12,6 +12,7 @@ public class AppointmentResponse {
     private String patientName;
     private LocalDate appointmentDate;
     private LocalTime appointmentTime;
+    private Integer durationMinutes;
     private String status;
 
     public AppointmentResponse(Appointment appointment) {
@@ -20,13 +21,32 @@ public class AppointmentResponse {
         this.patientName = appointment.getPatient().getName();
         this.appointmentDate = appointment.getAppointmentDate();
         this.appointmentTime = appointment.getAppointmentTime();
+        this.durationMinutes = appointment.getDurationMinutes();
         this.status = appointment.getStatus().name();
     }
 
+    // Used by the constructor-projection queries in AppointmentRepository
+    public AppointmentResponse(Long id,
+                               String doctorName,
+                               String patientName,
+                               LocalDate appointmentDate,
+                               LocalTime appointmentTime,
+                               Integer durationMinutes,
+                               AppointmentStatus status) {
+        this.id = id;
+        this.doctorName = doctorName;
+        this.patientName = patientName;
+        this.appointmentDate = appointmentDate;
+        this.appointmentTime = appointmentTime;
+        this.durationMinutes = durationMinutes;
+        this.status = status.name();
+    }
+
     public Long getId() { return id; }
     public String getDoctorName() { return doctorName; }
     public String getPatientName() { return patientName; }
     public LocalDate getAppointmentDate() { return appointmentDate; }
     public LocalTime getAppointmentTime() { return appointmentTime; }
+    public Integer getDurationMinutes() { return durationMinutes; }
     public String getStatus() { return status; }
 }
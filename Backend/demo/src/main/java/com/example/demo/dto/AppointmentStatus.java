@@ -4,5 +4,12 @@ public enum AppointmentStatus {
     PENDING,
     APPROVED,
     CANCELLED,
-    COMPLETED
+    REJECTED,
+    COMPLETED,
+    NO_SHOW;
+
+    // cancelled and rejected appointments give their slot back
+    public boolean occupiesSlot() {
+        return this != CANCELLED && this != REJECTED;
+    }
 }
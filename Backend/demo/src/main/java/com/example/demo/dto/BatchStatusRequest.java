@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public class BatchStatusRequest {
+
+    private List<Long> appointmentIds;
+    private String status;
+
+    public List<Long> getAppointmentIds() {
+        return appointmentIds;
+    }
+
+    public void setAppointmentIds(List<Long> appointmentIds) {
+        this.appointmentIds = appointmentIds;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+public class BatchStatusResult {
+
+    private Long appointmentId;
+    private boolean success;
+    private String error;
+
+    public BatchStatusResult(Long appointmentId, boolean success, String error) {
+        this.appointmentId = appointmentId;
+        this.success = success;
+        this.error = error;
+    }
+
+    public Long getAppointmentId() { return appointmentId; }
+    public boolean isSuccess() { return success; }
+    public String getError() { return error; }
+}
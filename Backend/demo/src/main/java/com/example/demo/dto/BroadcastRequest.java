@@ -0,0 +1,38 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public class BroadcastRequest {
+
+    private String message;
+
+    // PATIENT, DOCTOR, ADMIN; empty means every role
+    private List<String> roles;
+
+    // doctors there and patients with an upcoming appointment there; empty means everywhere
+    private List<Long> hospitalIds;
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public List<Long> getHospitalIds() {
+        return hospitalIds;
+    }
+
+    public void setHospitalIds(List<Long> hospitalIds) {
+        this.hospitalIds = hospitalIds;
+    }
+}
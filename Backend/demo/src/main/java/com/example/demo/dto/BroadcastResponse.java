@@ -0,0 +1,30 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+public class BroadcastResponse {
+
+    private Long id;
+    private String status;
+    private int total;
+    private int delivered;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    public BroadcastResponse(Long id, String status, int total, int delivered,
+                             LocalDateTime createdAt, LocalDateTime finishedAt) {
+        this.id = id;
+        this.status = status;
+        this.total = total;
+        this.delivered = delivered;
+        this.createdAt = createdAt;
+        this.finishedAt = finishedAt;
+    }
+
+    public Long getId() { return id; }
+    public String getStatus() { return status; }
+    public int getTotal() { return total; }
+    public int getDelivered() { return delivered; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+}
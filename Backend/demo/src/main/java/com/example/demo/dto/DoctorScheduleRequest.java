@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public class DoctorScheduleRequest {
+
+    private Integer slotMinutes;
+    private List<ScheduleRuleRequest> rules;
+
+    public Integer getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(Integer slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    public List<ScheduleRuleRequest> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<ScheduleRuleRequest> rules) {
+        this.rules = rules;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import com.example.demo.entity.ScheduleRule;
+
+public class DoctorScheduleResponse {
+
+    private Integer slotMinutes;
+    private List<ScheduleRule> rules;
+
+    public DoctorScheduleResponse(Integer slotMinutes, List<ScheduleRule> rules) {
+        this.slotMinutes = slotMinutes;
+        this.rules = rules;
+    }
+
+    public Integer getSlotMinutes() { return slotMinutes; }
+    public List<ScheduleRule> getRules() { return rules; }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public class NotificationPage {
+
+    private List<NotificationView> items;
+    private String nextCursor;
+
+    public NotificationPage(List<NotificationView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<NotificationView> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
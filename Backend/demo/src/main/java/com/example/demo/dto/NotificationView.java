@@ -0,0 +1,44 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.entity.NotificationAudience;
+import com.example.demo.entity.NotificationTemplate;
+
+// What a client renders for one notification, without the entity graph behind it
+public class NotificationView {
+
+    private Long id;
+    private String type;
+    private String message;
+    private String senderName;
+    private Long appointmentId;
+    private boolean readStatus;
+    private LocalDateTime createdAt;
+
+    // Used by the constructor-projection queries in NotificationRepository; renders the event's text
+    public NotificationView(Long id,
+                            NotificationTemplate template,
+                            String params,
+                            NotificationAudience audience,
+                            String senderName,
+                            Long appointmentId,
+                            boolean readStatus,
+                            LocalDateTime createdAt) {
+        this.id = id;
+        this.type = template.type(audience, params);
+        this.message = template.message(audience, params);
+        this.senderName = senderName;
+        this.appointmentId = appointmentId;
+        this.readStatus = readStatus;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() { return id; }
+    public String getType() { return type; }
+    public String getMessage() { return message; }
+    public String getSenderName() { return senderName; }
+    public Long getAppointmentId() { return appointmentId; }
+    public boolean isReadStatus() { return readStatus; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class OpenSlotResponse {
+
+    private Long doctorId;
+    private String doctorName;
+    private String hospitalName;
+    private LocalDate date;
+    private LocalTime time;
+
+    public OpenSlotResponse(DoctorSummary doctor, LocalDate date, LocalTime time) {
+        this.doctorId = doctor.getId();
+        this.doctorName = doctor.getName();
+        this.hospitalName = doctor.getHospitalName();
+        this.date = date;
+        this.time = time;
+    }
+
+    public Long getDoctorId() { return doctorId; }
+    public String getDoctorName() { return doctorName; }
+    public String getHospitalName() { return hospitalName; }
+    public LocalDate getDate() { return date; }
+    public LocalTime getTime() { return time; }
+}
@@ -9,6 +9,8 @@ public class RescheduleRequest {
     private LocalDate date;
     private LocalTime time;
     private String note;
+    // optional, keeps the current length when absent
+    private Integer durationMinutes;
     public Long getAppointmentId() {
         return appointmentId;
     }
@@ -33,6 +35,12 @@ public class RescheduleRequest {
     public void setNote(String note) {
         this.note = note;
     }
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
 
     // getters and setters
 }
@@ -0,0 +1,56 @@
+package com.example.demo.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.example.demo.entity.ScheduleRuleType;
+
+public class ScheduleRuleRequest {
+
+    private ScheduleRuleType type;
+    private DayOfWeek dayOfWeek;
+    private LocalDate overrideDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    public ScheduleRuleType getType() {
+        return type;
+    }
+
+    public void setType(ScheduleRuleType type) {
+        this.type = type;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalDate getOverrideDate() {
+        return overrideDate;
+    }
+
+    public void setOverrideDate(LocalDate overrideDate) {
+        this.overrideDate = overrideDate;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
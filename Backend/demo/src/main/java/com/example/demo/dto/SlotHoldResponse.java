@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+public class SlotHoldResponse {
+
+    private String holdToken;
+    private LocalDateTime expiresAt;
+
+    public SlotHoldResponse(String holdToken, LocalDateTime expiresAt) {
+        this.holdToken = holdToken;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getHoldToken() { return holdToken; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
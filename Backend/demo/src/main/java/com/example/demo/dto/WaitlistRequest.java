@@ -0,0 +1,34 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+
+public class WaitlistRequest {
+
+    private Long doctorId;
+    private LocalDate from;
+    private LocalDate to;
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import com.example.demo.entity.WaitlistEntry;
+
+public class WaitlistResponse {
+
+    private Long id;
+    private Long doctorId;
+    private String doctorName;
+    private LocalDate from;
+    private LocalDate to;
+    private String status;
+    private LocalDate offerDate;
+    private LocalTime offerTime;
+    private String holdToken;
+    private LocalDateTime offerExpiresAt;
+
+    public WaitlistResponse(WaitlistEntry entry) {
+        this.id = entry.getId();
+        this.doctorId = entry.getDoctor().getId();
+        this.doctorName = entry.getDoctor().getName();
+        this.from = entry.getFromDate();
+        this.to = entry.getToDate();
+        this.status = entry.getStatus().name();
+        this.offerDate = entry.getOfferDate();
+        this.offerTime = entry.getOfferTime();
+        this.holdToken = entry.getHoldToken();
+        this.offerExpiresAt = entry.getOfferExpiresAt();
+    }
+
+    public Long getId() { return id; }
+    public Long getDoctorId() { return doctorId; }
+    public String getDoctorName() { return doctorName; }
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public String getStatus() { return status; }
+    public LocalDate getOfferDate() { return offerDate; }
+    public LocalTime getOfferTime() { return offerTime; }
+    public String getHoldToken() { return holdToken; }
+    public LocalDateTime getOfferExpiresAt() { return offerExpiresAt; }
+}
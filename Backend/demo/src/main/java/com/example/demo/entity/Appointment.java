@@ -6,12 +6,14 @@ import java.time.LocalTime;
 
 import com.example.demo.dto.AppointmentStatus;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -21,8 +23,18 @@ import jakarta.persistence.UniqueConstraint;
    @Entity
 @Table(
     uniqueConstraints = @UniqueConstraint(
-        columnNames = {"doctor_id", "appointmentDate", "appointmentTime"}
-    )
+        name = "uk_appointment_slot",
+        columnNames = {"doctor_id", "appointmentDate", "appointmentTime", "slot_active"}
+    ),
+    // kept in step with db/migration, which is what actually creates them
+    indexes = {
+        // keyset order of the doctor and patient appointment lists
+        @Index(name = "idx_appointment_doctor_day", columnList = "doctor_id, appointmentDate, appointmentTime, id"),
+        @Index(name = "idx_appointment_patient_day", columnList = "patient_id, appointmentDate, appointmentTime, id"),
+        @Index(name = "idx_appointment_patient_status", columnList = "patient_id, status"),
+        @Index(name = "idx_appointment_doctor_date_status", columnList = "doctor_id, appointmentDate, status"),
+        @Index(name = "idx_appointment_status_date", columnList = "status, appointmentDate, appointmentTime, id")
+    }
 )
 public class Appointment {
 
@@ -41,6 +53,8 @@ public class Appointment {
     private LocalDate appointmentDate;
     private LocalTime appointmentTime;
 
+    private Integer durationMinutes;
+
     private String reason;
 
     @Enumerated(EnumType.STRING)
@@ -48,6 +62,11 @@ public class Appointment {
 
     private LocalDateTime createdAt;
 
+    // TRUE while the appointment holds its slot, NULL once it is cancelled or
+    // rejected so the unique constraint lets the slot be booked again
+    @Column(name = "slot_active")
+    private Boolean slotActive;
+
     public Long getId() {
         return id;
     }
@@ -88,6 +107,14 @@ public class Appointment {
         this.appointmentTime = appointmentTime;
     }
 
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
     public String getReason() {
         return reason;
     }
@@ -102,6 +129,11 @@ public class Appointment {
 
     public void setStatus(AppointmentStatus status) {
         this.status = status;
+        this.slotActive = status != null && status.occupiesSlot() ? Boolean.TRUE : null;
+    }
+
+    public Boolean getSlotActive() {
+        return slotActive;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -0,0 +1,93 @@
+package com.example.demo.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import com.example.demo.dto.AppointmentStatus;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+// Past appointments moved out of the hot table by AppointmentArchiver.
+// Rows keep their original id and are never written through JPA.
+@Entity
+@Table(
+    name = "appointment_archive",
+    indexes = {
+        @Index(name = "idx_appointment_archive_doctor_day", columnList = "doctor_id, appointmentDate, appointmentTime, id"),
+        @Index(name = "idx_appointment_archive_patient_day", columnList = "patient_id, appointmentDate, appointmentTime, id")
+    }
+)
+public class ArchivedAppointment {
+
+    @Id
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "patient_id", nullable = false)
+    private User patient;
+
+    @ManyToOne
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private User doctor;
+
+    private LocalDate appointmentDate;
+    private LocalTime appointmentTime;
+
+    private Integer durationMinutes;
+
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    private AppointmentStatus status;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime archivedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getPatient() {
+        return patient;
+    }
+
+    public User getDoctor() {
+        return doctor;
+    }
+
+    public LocalDate getAppointmentDate() {
+        return appointmentDate;
+    }
+
+    public LocalTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
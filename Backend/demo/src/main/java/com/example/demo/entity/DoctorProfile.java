@@ -1,11 +1,18 @@
 package com.example.demo.entity;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 
 
@@ -66,6 +73,18 @@ public class DoctorProfile {
         public void setConsultationMode(String consultationMode) {
             this.consultationMode = consultationMode;
         }
+        public Integer getSlotMinutes() {
+            return slotMinutes;
+        }
+        public void setSlotMinutes(Integer slotMinutes) {
+            this.slotMinutes = slotMinutes;
+        }
+        public List<ScheduleRule> getScheduleRules() {
+            return scheduleRules;
+        }
+        public void setScheduleRules(List<ScheduleRule> scheduleRules) {
+            this.scheduleRules = scheduleRules;
+        }
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -82,6 +101,13 @@ public class DoctorProfile {
     @ManyToOne
 private Hospital hospital;
     private String consultationMode;
+
+    // length of one bookable slot, used with the schedule rules below
+    private Integer slotMinutes;
+
+    @JsonIgnore
+    @OneToMany(mappedBy = "doctorProfile", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<ScheduleRule> scheduleRules = new ArrayList<>();
 }
 
 
@@ -4,13 +4,24 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 
+// One recipient's receipt for a NotificationEvent; the text is rendered from the event
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_notification_recipient_unread", columnList = "recipient_id, read_status, createdAt, id"),
+    @Index(name = "idx_notification_recipient_created", columnList = "recipient_id, createdAt"),
+    @Index(name = "idx_notification_recipient_id", columnList = "recipient_id, id"),
+    @Index(name = "idx_notification_read_created", columnList = "read_status, createdAt")
+})
 public class Notification {
 
     @Id
@@ -18,26 +29,21 @@ public class Notification {
     private Long id;
 
     @ManyToOne
-    @JoinColumn(name = "recipient_id", nullable = false)
-    private User recipient;
+    @JoinColumn(name = "event_id", nullable = false)
+    private NotificationEvent event;
 
     @ManyToOne
-    @JoinColumn(name = "sender_id")
-    private User sender;
+    @JoinColumn(name = "recipient_id", nullable = false)
+    private User recipient;
 
-    private String type;
-    private String message;
-    private String link;
+    @Enumerated(EnumType.STRING)
+    private NotificationAudience audience;
 
     @Column(name = "read_status")
-private boolean readStatus;
+    private boolean readStatus;
 
     private LocalDateTime createdAt;
 
-    @ManyToOne
-    @JoinColumn(name = "appointment_id")
-    private Appointment appointment;
-
     public Long getId() {
         return id;
     }
@@ -46,53 +52,37 @@ private boolean readStatus;
         this.id = id;
     }
 
-    public User getRecipient() {
-        return recipient;
-    }
-
-    public void setRecipient(User recipient) {
-        this.recipient = recipient;
-    }
-
-    public User getSender() {
-        return sender;
+    public NotificationEvent getEvent() {
+        return event;
     }
 
-    public void setSender(User sender) {
-        this.sender = sender;
+    public void setEvent(NotificationEvent event) {
+        this.event = event;
     }
 
-    public String getType() {
-        return type;
-    }
-
-    public void setType(String type) {
-        this.type = type;
-    }
-
-    public String getMessage() {
-        return message;
+    public User getRecipient() {
+        return recipient;
     }
 
-    public void setMessage(String message) {
-        this.message = message;
+    public void setRecipient(User recipient) {
+        this.recipient = recipient;
     }
 
-    public String getLink() {
-        return link;
+    public NotificationAudience getAudience() {
+        return audience;
     }
 
-    public void setLink(String link) {
-        this.link = link;
+    public void setAudience(NotificationAudience audience) {
+        this.audience = audience;
     }
 
     public boolean isReadStatus() {
         return readStatus;
-    }   
+    }
 
     public void setReadStatus(boolean readStatus) {
         this.readStatus = readStatus;
-    }   
+    }
 
     public LocalDateTime getCreatedAt() {
         return createdAt;
@@ -101,12 +91,4 @@ private boolean readStatus;
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
-
-    public Appointment getAppointment() {
-        return appointment;
-    }
-
-    public void setAppointment(Appointment appointment) {
-        this.appointment = appointment;
-    }
 }
@@ -0,0 +1,7 @@
+package com.example.demo.entity;
+
+// Which side of an event a receipt's recipient is on; picks the wording
+public enum NotificationAudience {
+    PATIENT,
+    DOCTOR
+}
@@ -0,0 +1,63 @@
+package com.example.demo.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+// Something that happened, shared by every recipient's Notification receipt; never updated
+@Entity
+@Table(name = "notification_event")
+public class NotificationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationTemplate template;
+
+    // NotificationTemplate.params(...) encoded
+    private String params;
+
+    @ManyToOne
+    @JoinColumn(name = "sender_id")
+    private User sender;
+
+    @ManyToOne
+    @JoinColumn(name = "appointment_id")
+    private Appointment appointment;
+
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public NotificationTemplate getTemplate() {
+        return template;
+    }
+
+    public String getParams() {
+        return params;
+    }
+
+    public User getSender() {
+        return sender;
+    }
+
+    public Appointment getAppointment() {
+        return appointment;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.entity;
+
+/**
+ * Wording of each kind of notification event, per audience.
+ *
+ * Events store only the template and its parameters; the text is rendered
+ * when a receipt is read, so one event can read differently for the patient
+ * and the doctor. Appointment templates take {0} doctor name, {1} patient
+ * name, {2} date and {3} time. A null pattern means that audience never
+ * gets the event.
+ */
+public enum NotificationTemplate {
+
+    // free text: {0} type, {1} message
+    TEXT("{0}", "{1}", "{0}", "{1}"),
+
+    // an admin announcement: {0} message
+    BROADCAST("BROADCAST", "{0}", "BROADCAST", "{0}"),
+
+    APPOINTMENT_BOOKED(
+            "APPOINTMENT_CREATED", "Your appointment request with Dr. {0} is created and pending approval.",
+            "APPOINTMENT_REQUEST", "New appointment request from {1} on {2} at {3}"),
+
+    APPOINTMENT_RESCHEDULED(
+            "APPOINTMENT_RESCHEDULED", "Your appointment with Dr. {0} has been rescheduled to {2} at {3}",
+            "APPOINTMENT_RESCHEDULED", "You rescheduled the appointment with {1} to {2} at {3}"),
+
+    APPOINTMENT_APPROVED(
+            "APPOINTMENT_APPROVED", "Your appointment on {2} at {3} has been approved by Dr. {0}",
+            "APPOINTMENT_STATUS_CHANGED", "You approved the appointment on {2} at {3} for {1}"),
+
+    APPOINTMENT_REJECTED(
+            "APPOINTMENT_REJECTED", "Your appointment request on {2} at {3} was rejected by Dr. {0}",
+            "APPOINTMENT_STATUS_CHANGED", "You rejected the appointment request on {2} at {3} for {1}"),
+
+    APPOINTMENT_CANCELLED(
+            "APPOINTMENT_CANCELLED", "Your appointment on {2} at {3} was cancelled by Dr. {0}",
+            "APPOINTMENT_STATUS_CHANGED", "You cancelled the appointment on {2} at {3} for {1}"),
+
+    APPOINTMENT_COMPLETED(
+            "APPOINTMENT_COMPLETED", "Your appointment on {2} at {3} is completed. You can now leave a review",
+            null, null),
+
+    APPOINTMENT_NO_SHOW(
+            "APPOINTMENT_NO_SHOW", "Your appointment on {2} at {3} was marked as missed",
+            null, null),
+
+    APPOINTMENT_REMINDER(
+            "Appointment Reminder", "Reminder: You have an appointment on {2} at {3}",
+            "Appointment Reminder", "Reminder: You have an appointment with {1} on {2} at {3}"),
+
+    // several APPOINTMENT_BOOKED merged for the doctor: {0} count
+    APPOINTMENT_REQUESTS_DIGEST(
+            null, null,
+            "APPOINTMENT_REQUEST", "{0} new appointment requests"),
+
+    // {0} count, {1} status
+    APPOINTMENTS_AUTO_UPDATED(
+            null, null,
+            "APPOINTMENTS_AUTO_UPDATED", "{0} past appointment(s) were marked {1}"),
+
+    // {0} doctor name, {1} date, {2} time, {3} minutes held
+    WAITLIST_OFFER(
+            "WAITLIST_OFFER", "A slot with Dr. {0} opened on {1} at {2}. It is held for you for {3} minutes.",
+            null, null),
+
+    // {0} doctor name, {1} date, {2} time
+    WAITLIST_EXPIRED(
+            "WAITLIST_EXPIRED", "Your held slot with Dr. {0} on {1} at {2} has expired.",
+            null, null);
+
+    // between stored parameters; can't occur in names or dates
+    public static final char SEPARATOR = '\u001f';
+
+    private final String patientType;
+    private final String patientText;
+    private final String doctorType;
+    private final String doctorText;
+
+    NotificationTemplate(String patientType, String patientText, String doctorType, String doctorText) {
+        this.patientType = patientType;
+        this.patientText = patientText;
+        this.doctorType = doctorType;
+        this.doctorText = doctorText;
+    }
+
+    // What a burst of this event is merged into, null when it is always sent as is
+    public NotificationTemplate digest() {
+        return switch (this) {
+            case APPOINTMENT_BOOKED -> APPOINTMENT_REQUESTS_DIGEST;
+            default -> null;
+        };
+    }
+
+    public boolean reaches(NotificationAudience audience) {
+        return (audience == NotificationAudience.DOCTOR ? doctorText : patientText) != null;
+    }
+
+    public String type(NotificationAudience audience, String params) {
+        return fill(audience == NotificationAudience.DOCTOR ? doctorType : patientType, params);
+    }
+
+    public String message(NotificationAudience audience, String params) {
+        return fill(audience == NotificationAudience.DOCTOR ? doctorText : patientText, params);
+    }
+
+    public static String params(Object... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(values[i] == null ? "" : values[i]);
+        }
+        return sb.toString();
+    }
+
+    private static String fill(String pattern, String params) {
+        if (pattern == null) {
+            return null;
+        }
+        String[] values = params == null ? new String[0] : params.split(String.valueOf(SEPARATOR), -1);
+
+        StringBuilder out = new StringBuilder(pattern.length() + 32);
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            int close = c == '{' ? pattern.indexOf('}', i) : -1;
+            if (close > i + 1) {
+                int index = Integer.parseInt(pattern, i + 1, close, 10);
+                out.append(index < values.length ? values[index] : "");
+                i = close;
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
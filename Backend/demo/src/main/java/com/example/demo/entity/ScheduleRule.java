@@ -0,0 +1,103 @@
+package com.example.demo.entity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+
+/**
+ * One line of a doctor's schedule.
+ *
+ * Weekly rules set {@code dayOfWeek}, date overrides set {@code overrideDate}
+ * and replace the weekly rules for that day. A BREAK with neither applies to
+ * every day.
+ */
+@Entity
+public class ScheduleRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "doctor_profile_id", nullable = false)
+    private DoctorProfile doctorProfile;
+
+    @Enumerated(EnumType.STRING)
+    private ScheduleRuleType type;
+
+    @Enumerated(EnumType.STRING)
+    private DayOfWeek dayOfWeek;
+
+    private LocalDate overrideDate;
+
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public DoctorProfile getDoctorProfile() {
+        return doctorProfile;
+    }
+
+    public void setDoctorProfile(DoctorProfile doctorProfile) {
+        this.doctorProfile = doctorProfile;
+    }
+
+    public ScheduleRuleType getType() {
+        return type;
+    }
+
+    public void setType(ScheduleRuleType type) {
+        this.type = type;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalDate getOverrideDate() {
+        return overrideDate;
+    }
+
+    public void setOverrideDate(LocalDate overrideDate) {
+        this.overrideDate = overrideDate;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.entity;
+
+public enum ScheduleRuleType {
+    HOURS,
+    BREAK,
+    DAY_OFF
+}
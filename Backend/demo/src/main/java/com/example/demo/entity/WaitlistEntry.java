@@ -0,0 +1,139 @@
+package com.example.demo.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_waitlist_status", columnList = "status"),
+    @Index(name = "idx_waitlist_patient_doctor", columnList = "patient_id, doctor_id, status"),
+    @Index(name = "idx_waitlist_doctor_status", columnList = "doctor_id, status, created_at")
+})
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "patient_id", nullable = false)
+    private User patient;
+
+    @ManyToOne
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private User doctor;
+
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    @Enumerated(EnumType.STRING)
+    private WaitlistStatus status;
+
+    private LocalDateTime createdAt;
+
+    // the slot currently offered, set while status is OFFERED; the row is the hold
+    private LocalDate offerDate;
+    private LocalTime offerTime;
+    private String holdToken;
+    private LocalDateTime offerExpiresAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getPatient() {
+        return patient;
+    }
+
+    public void setPatient(User patient) {
+        this.patient = patient;
+    }
+
+    public User getDoctor() {
+        return doctor;
+    }
+
+    public void setDoctor(User doctor) {
+        this.doctor = doctor;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    public WaitlistStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(WaitlistStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDate getOfferDate() {
+        return offerDate;
+    }
+
+    public void setOfferDate(LocalDate offerDate) {
+        this.offerDate = offerDate;
+    }
+
+    public LocalTime getOfferTime() {
+        return offerTime;
+    }
+
+    public void setOfferTime(LocalTime offerTime) {
+        this.offerTime = offerTime;
+    }
+
+    public String getHoldToken() {
+        return holdToken;
+    }
+
+    public void setHoldToken(String holdToken) {
+        this.holdToken = holdToken;
+    }
+
+    public LocalDateTime getOfferExpiresAt() {
+        return offerExpiresAt;
+    }
+
+    public void setOfferExpiresAt(LocalDateTime offerExpiresAt) {
+        this.offerExpiresAt = offerExpiresAt;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.entity;
+
+public enum WaitlistStatus {
+    WAITING,
+    OFFERED,
+    BOOKED,
+    EXPIRED,
+    CANCELLED
+}
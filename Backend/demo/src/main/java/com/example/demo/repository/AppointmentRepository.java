@@ -2,49 +2,135 @@ package com.example.demo.repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.example.demo.dto.AppointmentResponse;
 import com.example.demo.dto.AppointmentStatus;
 import com.example.demo.entity.Appointment;
 
-import com.example.demo.entity.User;
-
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
-    boolean existsByDoctorAndAppointmentDateAndAppointmentTime(
-            User doctor,
-            LocalDate date,
-            LocalTime time
-    );
-
-    List<Appointment> findByPatient(User patient);
-
-
-List<Appointment> findByDoctor(User doctor);
-
-List<Appointment> findByDoctorId(Long doctorId);
-List<Appointment> findByPatientAndStatus(User patient, AppointmentStatus status);
-
-List<Appointment> findByDoctorAndStatus(User doctor, AppointmentStatus status);
-
-List<Appointment> findByDoctorEmailAndAppointmentDateAndStatus(
-        String email,
-        LocalDate date,
-        AppointmentStatus status
-    );
-
-    List<Appointment> findByDoctorAndAppointmentDate(User doctor, LocalDate date);
-
-    boolean existsByDoctorAndAppointmentDateAndAppointmentTimeAndIdNot(
-        User doctor,
-        LocalDate date,
-        LocalTime time,
-        Long id
-);
+    // Selects the response columns only, so neither User nor its profile is loaded
+    String RESPONSE_SELECT = "select new com.example.demo.dto.AppointmentResponse("
+            + "a.id, d.name, p.name, a.appointmentDate, a.appointmentTime, a.durationMinutes, a.status) "
+            + "from Appointment a join a.doctor d join a.patient p ";
+
+    // Appointments still holding a slot, used to warm the availability index
+    @Query("select a.id as id, a.doctor.id as doctorId, a.appointmentDate as appointmentDate,"
+            + " a.appointmentTime as appointmentTime, a.durationMinutes as durationMinutes"
+            + " from Appointment a"
+            + " where a.doctor.id = :doctorId and a.appointmentDate = :date and a.slotActive = true")
+    List<BookedSlotView> findBookedSlotsOn(@Param("doctorId") Long doctorId,
+                                           @Param("date") LocalDate date);
+
+    // Bookings of one doctor are checked one at a time, on any node, while this row lock is held
+    @Query(value = "select id from users where id = :doctorId for update", nativeQuery = true)
+    Long lockDoctor(@Param("doctorId") Long doctorId);
+
+    // Range scans on idx_appointment_doctor_day, one per doctor in the list
+    @Query("select a.id as id, a.doctor.id as doctorId, a.appointmentDate as appointmentDate,"
+            + " a.appointmentTime as appointmentTime, a.durationMinutes as durationMinutes from Appointment a"
+            + " where a.doctor.id in :doctorIds and a.appointmentDate between :from and :to"
+            + " and a.slotActive = true")
+    List<BookedSlotView> findBookedSlots(@Param("doctorIds") Collection<Long> doctorIds,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
+
+    @Query(RESPONSE_SELECT + "where d.id = :doctorId")
+    List<AppointmentResponse> findResponsesByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query(RESPONSE_SELECT + "where p.id = :patientId")
+    List<AppointmentResponse> findResponsesByPatientId(@Param("patientId") Long patientId);
+
+    @Query(RESPONSE_SELECT + "where p.id = :patientId and a.status = :status")
+    List<AppointmentResponse> findResponsesByPatientIdAndStatus(@Param("patientId") Long patientId,
+                                                                @Param("status") AppointmentStatus status);
+
+    @Query(RESPONSE_SELECT + "where d.email = :email and a.appointmentDate = :date and a.status = :status")
+    List<AppointmentResponse> findResponsesByDoctorEmailAndDateAndStatus(@Param("email") String email,
+                                                                         @Param("date") LocalDate date,
+                                                                         @Param("status") AppointmentStatus status);
+
+    @Query("select a.id as id, a.doctor.id as doctorId, p.id as patientId, p.name as patientName,"
+            + " a.appointmentDate as appointmentDate, a.appointmentTime as appointmentTime,"
+            + " a.durationMinutes as durationMinutes, a.status as status from Appointment a join a.patient p where a.id in :ids")
+    List<AppointmentStatusView> findStatusViews(@Param("ids") Collection<Long> ids);
+
+    // Moves only the doctor's rows that are still in one of the given states
+    @Modifying
+    @Query("update Appointment a set a.status = :status, a.slotActive = :slotActive"
+            + " where a.id in :ids and a.doctor.id = :doctorId and a.status in :fromStatuses")
+    int updateStatusInBulk(@Param("ids") Collection<Long> ids,
+                           @Param("doctorId") Long doctorId,
+                           @Param("fromStatuses") Collection<AppointmentStatus> fromStatuses,
+                           @Param("status") AppointmentStatus status,
+                           @Param("slotActive") Boolean slotActive);
+
+    // Rows in a state that started by the cutoff, oldest first after (afterDate, afterTime, afterId),
+    // walks idx_appointment_status_date
+    @Query("select a.id as id, a.doctor.id as doctorId, p.id as patientId, p.name as patientName,"
+            + " a.appointmentDate as appointmentDate, a.appointmentTime as appointmentTime,"
+            + " a.durationMinutes as durationMinutes, a.status as status from Appointment a join a.patient p"
+            + " where a.status = :status and (a.appointmentDate < :cutoffDate"
+            + "   or (a.appointmentDate = :cutoffDate and a.appointmentTime <= :cutoffTime))"
+            + " and (:afterDate is null or a.appointmentDate > :afterDate"
+            + "   or (a.appointmentDate = :afterDate and (a.appointmentTime > :afterTime"
+            + "     or (a.appointmentTime = :afterTime and a.id > :afterId))))"
+            + " order by a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentStatusView> findDue(@Param("status") AppointmentStatus status,
+                                        @Param("cutoffDate") LocalDate cutoffDate,
+                                        @Param("cutoffTime") LocalTime cutoffTime,
+                                        @Param("afterDate") LocalDate afterDate,
+                                        @Param("afterTime") LocalTime afterTime,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    @Modifying
+    @Query("update Appointment a set a.status = :to where a.id in :ids and a.status = :from")
+    int transition(@Param("ids") Collection<Long> ids,
+                   @Param("from") AppointmentStatus from,
+                   @Param("to") AppointmentStatus to);
+
+    // Keyset pages, newest first, walking (appointmentDate, appointmentTime, id)
+    @Query(RESPONSE_SELECT + "where d.id = :doctorId"
+            + " and (:status is null or a.status = :status)"
+            + " and (:from is null or a.appointmentDate >= :from)"
+            + " and (:to is null or a.appointmentDate <= :to)"
+            + " and (:afterDate is null or a.appointmentDate < :afterDate"
+            + "   or (a.appointmentDate = :afterDate and (a.appointmentTime < :afterTime"
+            + "     or (a.appointmentTime = :afterTime and a.id < :afterId))))"
+            + " order by a.appointmentDate desc, a.appointmentTime desc, a.id desc")
+    List<AppointmentResponse> findDoctorPage(@Param("doctorId") Long doctorId,
+                                             @Param("status") AppointmentStatus status,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to,
+                                             @Param("afterDate") LocalDate afterDate,
+                                             @Param("afterTime") LocalTime afterTime,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "where p.id = :patientId"
+            + " and (:status is null or a.status = :status)"
+            + " and (:from is null or a.appointmentDate >= :from)"
+            + " and (:to is null or a.appointmentDate <= :to)"
+            + " and (:afterDate is null or a.appointmentDate < :afterDate"
+            + "   or (a.appointmentDate = :afterDate and (a.appointmentTime < :afterTime"
+            + "     or (a.appointmentTime = :afterTime and a.id < :afterId))))"
+            + " order by a.appointmentDate desc, a.appointmentTime desc, a.id desc")
+    List<AppointmentResponse> findPatientPage(@Param("patientId") Long patientId,
+                                              @Param("status") AppointmentStatus status,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to,
+                                              @Param("afterDate") LocalDate afterDate,
+                                              @Param("afterTime") LocalTime afterTime,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
 
 }
-
-
-
@@ -0,0 +1,26 @@
+package com.example.demo.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.example.demo.dto.AppointmentStatus;
+
+// The columns a status change needs, without loading the entity
+public interface AppointmentStatusView {
+
+    Long getId();
+
+    Long getDoctorId();
+
+    Long getPatientId();
+
+    String getPatientName();
+
+    LocalDate getAppointmentDate();
+
+    LocalTime getAppointmentTime();
+
+    Integer getDurationMinutes();
+
+    AppointmentStatus getStatus();
+}
@@ -0,0 +1,66 @@
+package com.example.demo.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.demo.dto.AppointmentResponse;
+import com.example.demo.dto.AppointmentStatus;
+import com.example.demo.entity.ArchivedAppointment;
+
+// Same lists and keyset pages as AppointmentRepository, over appointment_archive
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    String RESPONSE_SELECT = "select new com.example.demo.dto.AppointmentResponse("
+            + "a.id, d.name, p.name, a.appointmentDate, a.appointmentTime, a.durationMinutes, a.status) "
+            + "from ArchivedAppointment a join a.doctor d join a.patient p ";
+
+    @Query(RESPONSE_SELECT + "where d.id = :doctorId")
+    List<AppointmentResponse> findResponsesByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query(RESPONSE_SELECT + "where p.id = :patientId")
+    List<AppointmentResponse> findResponsesByPatientId(@Param("patientId") Long patientId);
+
+    @Query(RESPONSE_SELECT + "where p.id = :patientId and a.status = :status")
+    List<AppointmentResponse> findResponsesByPatientIdAndStatus(@Param("patientId") Long patientId,
+                                                                @Param("status") AppointmentStatus status);
+
+    @Query(RESPONSE_SELECT + "where d.id = :doctorId"
+            + " and (:status is null or a.status = :status)"
+            + " and (:from is null or a.appointmentDate >= :from)"
+            + " and (:to is null or a.appointmentDate <= :to)"
+            + " and (:afterDate is null or a.appointmentDate < :afterDate"
+            + "   or (a.appointmentDate = :afterDate and (a.appointmentTime < :afterTime"
+            + "     or (a.appointmentTime = :afterTime and a.id < :afterId))))"
+            + " order by a.appointmentDate desc, a.appointmentTime desc, a.id desc")
+    List<AppointmentResponse> findDoctorPage(@Param("doctorId") Long doctorId,
+                                             @Param("status") AppointmentStatus status,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to,
+                                             @Param("afterDate") LocalDate afterDate,
+                                             @Param("afterTime") LocalTime afterTime,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "where p.id = :patientId"
+            + " and (:status is null or a.status = :status)"
+            + " and (:from is null or a.appointmentDate >= :from)"
+            + " and (:to is null or a.appointmentDate <= :to)"
+            + " and (:afterDate is null or a.appointmentDate < :afterDate"
+            + "   or (a.appointmentDate = :afterDate and (a.appointmentTime < :afterTime"
+            + "     or (a.appointmentTime = :afterTime and a.id < :afterId))))"
+            + " order by a.appointmentDate desc, a.appointmentTime desc, a.id desc")
+    List<AppointmentResponse> findPatientPage(@Param("patientId") Long patientId,
+                                              @Param("status") AppointmentStatus status,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to,
+                                              @Param("afterDate") LocalDate afterDate,
+                                              @Param("afterTime") LocalTime afterTime,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+}
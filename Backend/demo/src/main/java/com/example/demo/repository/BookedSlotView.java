@@ -0,0 +1,18 @@
+package com.example.demo.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Date, time and length of a slot-holding appointment, without loading the entity
+public interface BookedSlotView {
+
+    Long getId();
+
+    Long getDoctorId();
+
+    LocalDate getAppointmentDate();
+
+    LocalTime getAppointmentTime();
+
+    Integer getDurationMinutes();
+}
@@ -1,8 +1,13 @@
 package com.example.demo.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.demo.dto.DoctorSummary;
 
 import com.example.demo.entity.DoctorProfile;
 import com.example.demo.entity.User;
@@ -11,5 +16,14 @@ public interface DoctorProfileRepository
     extends JpaRepository<DoctorProfile, Long> {
 
     Optional<DoctorProfile> findByUser(User user);
+
+    Optional<DoctorProfile> findByUserId(Long userId);
+
+    @Query("select new com.example.demo.dto.DoctorSummary(u.id, u.name, p.specialization, h.name)"
+            + " from DoctorProfile p join p.user u left join p.hospital h"
+            + " where lower(p.specialization) = lower(:specialization)"
+            + " and (:hospitalId is null or h.id = :hospitalId)")
+    List<DoctorSummary> findSummaries(@Param("specialization") String specialization,
+                                      @Param("hospitalId") Long hospitalId);
 }
 
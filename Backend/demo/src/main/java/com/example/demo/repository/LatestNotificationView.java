@@ -0,0 +1,9 @@
+package com.example.demo.repository;
+
+// Newest notification id of one recipient
+public interface LatestNotificationView {
+
+    Long getRecipientId();
+
+    Long getLatestId();
+}
@@ -1,15 +1,72 @@
 package com.example.demo.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.example.demo.dto.NotificationView;
 import com.example.demo.entity.Notification;
 import com.example.demo.entity.User;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
-    List<Notification> findByRecipientOrderByCreatedAtDesc(User recipient);
+    // Selects the view columns only: the receipt, its event, and the sender's name
+    String VIEW_SELECT = "select new com.example.demo.dto.NotificationView("
+            + "n.id, e.template, e.params, n.audience, s.name, e.appointment.id, n.readStatus, n.createdAt) "
+            + "from Notification n join n.event e left join e.sender s ";
 
     long countByRecipientAndReadStatusFalse(User recipient); // ✅ updated
+
+    long countByRecipientIdAndReadStatusFalse(Long recipientId);
+
+    // Recipients with nothing unread are simply missing from the result
+    @Query("select n.recipient.id as recipientId, count(n) as unread from Notification n"
+            + " where n.recipient.id in :recipientIds and n.readStatus = false"
+            + " group by n.recipient.id")
+    List<UnreadCountView> countUnread(@Param("recipientIds") Collection<Long> recipientIds);
+
+    // Newest first, walking (createdAt, id) on idx_notification_recipient_created
+    @Query(VIEW_SELECT + "where n.recipient.id = :recipientId"
+            + " and (:afterCreatedAt is null or n.createdAt < :afterCreatedAt"
+            + "   or (n.createdAt = :afterCreatedAt and n.id < :afterId))"
+            + " order by n.createdAt desc, n.id desc")
+    List<NotificationView> findFeedPage(@Param("recipientId") Long recipientId,
+                                        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    // Oldest first after an id, walks idx_notification_recipient_id
+    @Query(VIEW_SELECT + "where n.recipient.id = :recipientId and n.id > :afterId order by n.id")
+    List<NotificationView> findViewsAfter(@Param("recipientId") Long recipientId,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    @Query("select coalesce(max(n.id), 0) from Notification n where n.recipient.id = :recipientId")
+    long findLatestId(@Param("recipientId") Long recipientId);
+
+    // One max per recipient off idx_notification_recipient_id; recipients with no rows are missing
+    @Query("select n.recipient.id as recipientId, max(n.id) as latestId from Notification n"
+            + " where n.recipient.id in :recipientIds group by n.recipient.id")
+    List<LatestNotificationView> findLatestIds(@Param("recipientIds") Collection<Long> recipientIds);
+
+    // One UPDATE over the unread rows only, on idx_notification_recipient_unread
+    @Modifying
+    @Query("update Notification n set n.readStatus = true"
+            + " where n.recipient.id = :recipientId and n.readStatus = false")
+    int markAllRead(@Param("recipientId") Long recipientId);
+
+    // Unread rows at or before (createdAt, id), i.e. what the client has rendered
+    @Modifying
+    @Query("update Notification n set n.readStatus = true"
+            + " where n.recipient.id = :recipientId and n.readStatus = false"
+            + " and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id <= :id))")
+    int markReadUpTo(@Param("recipientId") Long recipientId,
+                     @Param("createdAt") LocalDateTime createdAt,
+                     @Param("id") Long id);
 }
\ No newline at end of file
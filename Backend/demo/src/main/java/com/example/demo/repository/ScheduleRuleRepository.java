@@ -0,0 +1,12 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.entity.ScheduleRule;
+
+public interface ScheduleRuleRepository extends JpaRepository<ScheduleRule, Long> {
+
+    List<ScheduleRule> findByDoctorProfileUserId(Long doctorId);
+}
@@ -0,0 +1,9 @@
+package com.example.demo.repository;
+
+// Unread notifications of one recipient
+public interface UnreadCountView {
+
+    Long getRecipientId();
+
+    Long getUnread();
+}
@@ -0,0 +1,23 @@
+package com.example.demo.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.entity.User;
+import com.example.demo.entity.WaitlistEntry;
+import com.example.demo.entity.WaitlistStatus;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    List<WaitlistEntry> findByPatientOrderByCreatedAtDesc(User patient);
+
+    List<WaitlistEntry> findByPatientIdAndDoctorIdAndStatusIn(Long patientId,
+                                                             Long doctorId,
+                                                             Collection<WaitlistStatus> statuses);
+
+    boolean existsByPatientAndDoctorAndStatusIn(User patient,
+                                                User doctor,
+                                                Collection<WaitlistStatus> statuses);
+}
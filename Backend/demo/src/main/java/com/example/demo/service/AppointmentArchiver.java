@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves finished appointments older than the retention window from
+ * appointment into appointment_archive.
+ *
+ * Every archived row is dated before {@link #horizon()}, so a read whose
+ * range starts on or after it never has to look at the archive. Rows with
+ * feedback stay hot because feedback keeps a foreign key to appointment.
+ * The work is split into shards by id, which the nodes of a cluster share
+ * out through {@link JobLeaseService}.
+ */
+@Component
+public class AppointmentArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentArchiver.class);
+
+    private static final String FINISHED = "'COMPLETED', 'CANCELLED', 'REJECTED', 'NO_SHOW'";
+
+    // walks the primary key from the run's cursor, so rows pinned by feedback are passed once per run
+    private static final String DUE_SQL = "select a.id from appointment a"
+            + " where a.id > ? and a.status in (" + FINISHED + ") and a.appointment_date < ?"
+            + " and not exists (select 1 from feedback f where f.appointment_id = a.id)"
+            + " and mod(a.id, ?) = ? order by a.id limit ?";
+
+    private static final String COPY_SQL = "insert into appointment_archive"
+            + " (id, patient_id, doctor_id, appointment_date, appointment_time, duration_minutes,"
+            + " reason, status, created_at, archived_at)"
+            + " select id, patient_id, doctor_id, appointment_date, appointment_time, duration_minutes,"
+            + " reason, status, created_at, ?"
+            + " from appointment where id in (%s)";
+
+    private static final String DETACH_SQL = "update notification_event set appointment_id = null where appointment_id in (%s)";
+
+    private static final String DELETE_SQL = "delete from appointment where id in (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseService jobLeaseService;
+
+    private final int afterDays;
+    private final int chunkSize;
+    private final int shards;
+
+    public AppointmentArchiver(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               JobLeaseService jobLeaseService,
+                               @Value("${appointments.archive.after-days:90}") int afterDays,
+                               @Value("${appointments.archive.chunk-size:1000}") int chunkSize,
+                               @Value("${appointments.archive.shards:4}") int shards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobLeaseService = jobLeaseService;
+        this.afterDays = afterDays;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.shards = Math.max(1, shards);
+    }
+
+    // Nothing on or after this date is in the archive
+    public LocalDate horizon() {
+        return LocalDate.now().minusDays(afterDays);
+    }
+
+    // every node joins in and takes whichever shards are free
+    @EveryNode
+    @Scheduled(cron = "${appointments.archive.cron:0 30 3 * * *}")
+    public void run() {
+        LocalDate cutoff = horizon();
+        jobLeaseService.runShards("AppointmentArchiver.run", shards, shard -> archive(cutoff, shard));
+    }
+
+    private void archive(LocalDate cutoff, int shard) {
+        // highest id moved so far this run
+        long[] after = {0};
+        int total = 0;
+        Integer moved;
+        do {
+            moved = transactionTemplate.execute(tx -> moveChunk(cutoff, shard, after));
+            total += moved == null ? 0 : moved;
+        } while (moved != null && moved == chunkSize);
+
+        if (total > 0) {
+            logger.info("Archived {} appointments dated before {} (shard {})", total, cutoff, shard);
+        }
+    }
+
+    private int moveChunk(LocalDate cutoff, int shard, long[] after) {
+        List<Long> ids = jdbcTemplate.queryForList(DUE_SQL, Long.class, after[0], cutoff, shards, shard, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        after[0] = ids.get(ids.size() - 1);
+
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] idArgs = ids.toArray();
+
+        List<Object> copyArgs = new ArrayList<>(ids.size() + 1);
+        copyArgs.add(Timestamp.valueOf(LocalDateTime.now()));
+        copyArgs.addAll(ids);
+
+        jdbcTemplate.update(String.format(COPY_SQL, in), copyArgs.toArray());
+        jdbcTemplate.update(String.format(DETACH_SQL, in), idArgs);
+        jdbcTemplate.update(String.format(DELETE_SQL, in), idArgs);
+
+        return ids.size();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.demo.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.AppointmentStatus;
+import com.example.demo.entity.NotificationAudience;
+import com.example.demo.entity.NotificationTemplate;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.AppointmentStatusView;
+
+/**
+ * Moves APPROVED appointments that ended before the cutoff to COMPLETED, or
+ * to NO_SHOW when the no-show policy is MARK and doctors confirm visits by hand.
+ *
+ * Rows that started by the cutoff are walked in chunks off
+ * idx_appointment_status_date with a keyset cursor; the end (start plus
+ * duration) is checked here, and rows still running are stepped over until
+ * a later run. Each chunk is one UPDATE plus one notification batch in its
+ * own transaction.
+ */
+@Component
+public class AppointmentLifecycleJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentLifecycleJob.class);
+
+    public enum NoShowPolicy { OFF, MARK }
+
+    private final AppointmentRepository appointmentRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long completeAfterMinutes;
+    private final NoShowPolicy noShowPolicy;
+    private final int chunkSize;
+
+    public AppointmentLifecycleJob(AppointmentRepository appointmentRepository,
+                                   NotificationService notificationService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${appointments.lifecycle.complete-after-minutes:60}") long completeAfterMinutes,
+                                   @Value("${appointments.lifecycle.no-show-policy:OFF}") NoShowPolicy noShowPolicy,
+                                   @Value("${appointments.lifecycle.chunk-size:500}") int chunkSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completeAfterMinutes = completeAfterMinutes;
+        this.noShowPolicy = noShowPolicy;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Scheduled(cron = "${appointments.lifecycle.cron:0 */15 * * * *}")
+    public void run() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(completeAfterMinutes);
+        AppointmentStatus target = noShowPolicy == NoShowPolicy.MARK
+                ? AppointmentStatus.NO_SHOW
+                : AppointmentStatus.COMPLETED;
+
+        Map<Long, Integer> perDoctor = new LinkedHashMap<>();
+        Cursor cursor = new Cursor();
+        Integer read;
+        do {
+            read = transactionTemplate.execute(tx -> transitionChunk(cutoff, target, perDoctor, cursor));
+        } while (read != null && read == chunkSize);
+
+        if (perDoctor.isEmpty()) {
+            return;
+        }
+
+        // one summary per doctor for the whole run
+        List<NotificationService.Event> summaries = new ArrayList<>(perDoctor.size());
+        perDoctor.forEach((doctorId, count) -> summaries.add(new NotificationService.Event(
+                NotificationTemplate.APPOINTMENTS_AUTO_UPDATED,
+                NotificationTemplate.params(count, target),
+                null, null,
+                List.of(new NotificationService.Recipient(doctorId, NotificationAudience.DOCTOR)))));
+        notificationService.publish(summaries);
+
+        int total = perDoctor.values().stream().mapToInt(Integer::intValue).sum();
+        logger.info("Moved {} past appointments to {}", total, target);
+    }
+
+    private int transitionChunk(LocalDateTime cutoff, AppointmentStatus target,
+                                Map<Long, Integer> perDoctor, Cursor cursor) {
+        List<AppointmentStatusView> started = appointmentRepository.findDue(
+                AppointmentStatus.APPROVED, cutoff.toLocalDate(), cutoff.toLocalTime(),
+                cursor.date, cursor.time, cursor.id, PageRequest.of(0, chunkSize));
+        if (started.isEmpty()) {
+            return 0;
+        }
+
+        AppointmentStatusView last = started.get(started.size() - 1);
+        cursor.date = last.getAppointmentDate();
+        cursor.time = last.getAppointmentTime();
+        cursor.id = last.getId();
+
+        // a visit that is still running waits for a later run
+        List<AppointmentStatusView> due = started.stream()
+                .filter(v -> !LocalDateTime.of(v.getAppointmentDate(), v.getAppointmentTime())
+                        .plusMinutes(v.getDurationMinutes()).isAfter(cutoff))
+                .toList();
+        if (due.isEmpty()) {
+            return started.size();
+        }
+
+        List<Long> ids = new ArrayList<>(due.size());
+        for (AppointmentStatusView view : due) {
+            ids.add(view.getId());
+        }
+        int updated = appointmentRepository.transition(ids, AppointmentStatus.APPROVED, target);
+
+        // a doctor changed some of these in between, only notify for the rows we moved
+        List<AppointmentStatusView> moved = updated == due.size()
+                ? due
+                : appointmentRepository.findStatusViews(ids).stream()
+                        .filter(v -> v.getStatus() == target)
+                        .toList();
+
+        NotificationTemplate template = target == AppointmentStatus.NO_SHOW
+                ? NotificationTemplate.APPOINTMENT_NO_SHOW
+                : NotificationTemplate.APPOINTMENT_COMPLETED;
+
+        // patient-only templates, so the doctor's name isn't needed
+        List<NotificationService.Event> events = new ArrayList<>(moved.size());
+        for (AppointmentStatusView view : moved) {
+            events.add(NotificationService.Event.forAppointment(template, view.getId(), view.getDoctorId(),
+                    view.getPatientId(), null, view.getPatientName(),
+                    view.getAppointmentDate(), view.getAppointmentTime()));
+            perDoctor.merge(view.getDoctorId(), 1, Integer::sum);
+        }
+        notificationService.publish(events);
+
+        // the size of the chunk read, so a row changed or skipped doesn't end the run early
+        return started.size();
+    }
+
+    // Where the run has read up to; only touched by the run's own thread
+    private static final class Cursor {
+        private LocalDate date;
+        private LocalTime time;
+        private Long id;
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.NotificationTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sends appointment reminders at fixed offsets before each APPROVED
+ * appointment, e.g. 24 hours and 1 hour ahead.
+ *
+ * Pending reminders live in a {@link ReminderTimingWheel}. Every node
+ * re-scans the appointments starting within the next window, the largest
+ * offset plus a margin, every rescan-ms and adds the reminders not yet
+ * sent; the node dispatching an approval or reschedule also adds that one
+ * straight away. Cancellations and moves are not
+ * chased through the wheel: a reminder is checked against the appointment
+ * when it fires and dropped if the appointment is no longer APPROVED at that
+ * time. appointment_reminder keeps each reminder from going out twice,
+ * whichever node fires it.
+ */
+@Service
+public class AppointmentReminderScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentReminderScheduler.class);
+
+    // offsets per appointment the wheel key has room for
+    private static final int MAX_OFFSETS = 8;
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String UPCOMING_SQL = "select id, appointment_date, appointment_time from appointment"
+            + " where status = 'APPROVED' and (appointment_date > ? or (appointment_date = ?"
+            + "   and (appointment_time > ? or (appointment_time = ? and id > ?))))"
+            + " and (appointment_date < ? or (appointment_date = ? and appointment_time <= ?))"
+            + " order by appointment_date, appointment_time, id limit ?";
+
+    // reminders already sent for the appointments' current date and time
+    private static final String SENT_SQL = "select r.appointment_id, r.offset_minutes from appointment_reminder r"
+            + " join appointment a on a.id = r.appointment_id"
+            + "   and a.appointment_date = r.appointment_date and a.appointment_time = r.appointment_time"
+            + " where r.appointment_id in (%s)";
+
+    private static final String CURRENT_SQL = "select a.id, a.doctor_id, a.patient_id, p.name as patient_name,"
+            + " a.appointment_date, a.appointment_time, a.status"
+            + " from appointment a join users p on p.id = a.patient_id where a.id in (%s)";
+
+    private static final String CLAIM_SQL = "insert ignore into appointment_reminder"
+            + " (appointment_id, appointment_date, appointment_time, offset_minutes, sent_at) values (?, ?, ?, ?, ?)";
+
+    private static final String CLEANUP_SQL = "delete from appointment_reminder where appointment_date < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    // largest first
+    private final int[] offsetMinutes;
+    private final long tickMillis;
+    private final long rescanMillis;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "appointment-reminders");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // only touched from the worker thread
+    private final ReminderTimingWheel wheel;
+    // deadline of each key in the wheel, so a rescan doesn't add it twice
+    private final Map<Long, Long> scheduled = new HashMap<>();
+
+    public AppointmentReminderScheduler(JdbcTemplate jdbcTemplate,
+                                        NotificationService notificationService,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${notifications.reminders.offset-minutes:1440,60}") int[] offsetMinutes,
+                                        @Value("${notifications.reminders.tick-ms:60000}") long tickMillis,
+                                        @Value("${notifications.reminders.rescan-ms:300000}") long rescanMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int[] sorted = Arrays.stream(offsetMinutes).filter(m -> m > 0).distinct().sorted().toArray();
+        if (sorted.length > MAX_OFFSETS) {
+            throw new IllegalStateException("At most " + MAX_OFFSETS + " reminder offsets are supported");
+        }
+        this.offsetMinutes = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            this.offsetMinutes[i] = sorted[sorted.length - 1 - i];
+        }
+
+        this.tickMillis = Math.max(1000, tickMillis);
+        this.rescanMillis = Math.max(this.tickMillis, rescanMillis);
+        this.wheel = new ReminderTimingWheel(this.tickMillis, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        worker.execute(logged(this::loadUpcoming));
+        worker.scheduleAtFixedRate(logged(this::tick), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // Call when an appointment becomes APPROVED at this date and time; acts once that commits
+    public void approved(Long appointmentId, LocalDate date, LocalTime time) {
+        PersistenceSupport.afterCommit(() -> worker.execute(logged(
+                () -> schedule(appointmentId, LocalDateTime.of(date, time), Set.of()))));
+    }
+
+    // Approvals dispatched on other nodes only reach this one through the database
+    @EveryNode
+    @Scheduled(fixedDelayString = "${notifications.reminders.rescan-ms:300000}")
+    public void rescan() {
+        worker.execute(logged(this::loadUpcoming));
+    }
+
+    // Markers for past days can no longer stop anything
+    @Scheduled(cron = "${notifications.reminders.cleanup-cron:0 15 3 * * *}")
+    public void cleanup() {
+        jdbcTemplate.update(CLEANUP_SQL, LocalDate.now());
+    }
+
+    private void loadUpcoming() {
+        if (offsetMinutes.length == 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // past the next rescan, so nothing falls between two of them
+        LocalDateTime end = now.plusMinutes(offsetMinutes[0]).plus(Duration.ofMillis(2 * rescanMillis));
+        LocalDate date = now.toLocalDate();
+        LocalTime time = now.toLocalTime();
+        long id = 0;
+        int added = 0;
+
+        List<Object[]> page;
+        do {
+            page = jdbcTemplate.query(UPCOMING_SQL, (rs, i) -> new Object[] {
+                    rs.getLong("id"),
+                    rs.getObject("appointment_date", LocalDate.class),
+                    rs.getObject("appointment_time", LocalTime.class)
+            }, date, date, time, time, id, end.toLocalDate(), end.toLocalDate(), end.toLocalTime(), CHUNK_SIZE);
+
+            if (page.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = new ArrayList<>(page.size());
+            for (Object[] row : page) {
+                ids.add((Long) row[0]);
+            }
+            Map<Long, Set<Integer>> sent = new HashMap<>();
+            jdbcTemplate.query(String.format(SENT_SQL, PersistenceSupport.placeholders(ids.size())), rs -> {
+                sent.computeIfAbsent(rs.getLong("appointment_id"), k -> new HashSet<>()).add(rs.getInt("offset_minutes"));
+            }, ids.toArray());
+
+            for (Object[] row : page) {
+                id = (Long) row[0];
+                date = (LocalDate) row[1];
+                time = (LocalTime) row[2];
+                added += schedule(id, LocalDateTime.of(date, time), sent.getOrDefault(id, Set.of()));
+            }
+        } while (page.size() == CHUNK_SIZE);
+
+        if (added > 0) {
+            logger.info("Added {} appointment reminders, {} pending", added, wheel.size());
+        }
+    }
+
+    // Adds the reminders not sent yet and not already in the wheel; returns how many were added
+    private int schedule(Long appointmentId, LocalDateTime start, Set<Integer> sent) {
+        long startMillis = toMillis(start);
+        long now = System.currentTimeMillis();
+        if (startMillis <= now) {
+            return 0;
+        }
+
+        int added = 0;
+        boolean missedOne = false;
+        // smallest offset first, so only the latest reminder already due goes out now
+        for (int i = offsetMinutes.length - 1; i >= 0; i--) {
+            long fireAt = startMillis - offsetMinutes[i] * 60_000L;
+            if (fireAt <= now) {
+                if (missedOne) {
+                    continue;
+                }
+                missedOne = true;
+            }
+            if (sent.contains(offsetMinutes[i])) {
+                continue;
+            }
+            long key = key(appointmentId, i);
+            Long previous = scheduled.put(key, fireAt);
+            if (previous == null || previous != fireAt) {
+                wheel.add(key, fireAt);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private void tick() {
+        List<long[]> fired = new ArrayList<>();
+        wheel.advance(System.currentTimeMillis(), (key, deadline) -> {
+            scheduled.remove(key, deadline);
+            fired.add(new long[] {key, deadline});
+        });
+        fire(fired);
+    }
+
+    // Sends the reminders of these wheel entries, each {key, deadline}
+    void fire(List<long[]> fired) {
+        for (int from = 0; from < fired.size(); from += CHUNK_SIZE) {
+            List<long[]> chunk = fired.subList(from, Math.min(from + CHUNK_SIZE, fired.size()));
+            transactionTemplate.executeWithoutResult(tx -> send(chunk));
+        }
+    }
+
+    private void send(List<long[]> fired) {
+
+        List<Long> ids = new ArrayList<>(fired.size());
+        for (long[] f : fired) {
+            ids.add(f[0] / MAX_OFFSETS);
+        }
+
+        Map<Long, Current> current = new HashMap<>();
+        jdbcTemplate.query(String.format(CURRENT_SQL, PersistenceSupport.placeholders(ids.size())), rs -> {
+            current.put(rs.getLong("id"), new Current(
+                    rs.getLong("doctor_id"),
+                    rs.getLong("patient_id"),
+                    rs.getString("patient_name"),
+                    rs.getObject("appointment_date", LocalDate.class),
+                    rs.getObject("appointment_time", LocalTime.class),
+                    rs.getString("status")));
+        }, ids.toArray());
+
+        // still APPROVED and still at the time the reminder was set for
+        List<Due> due = new ArrayList<>(fired.size());
+        for (long[] f : fired) {
+            long appointmentId = f[0] / MAX_OFFSETS;
+            int offset = offsetMinutes[(int) (f[0] % MAX_OFFSETS)];
+            Current c = current.get(appointmentId);
+            if (c != null && "APPROVED".equals(c.status())
+                    && toMillis(LocalDateTime.of(c.date(), c.time())) == f[1] + offset * 60_000L) {
+                due.add(new Due(appointmentId, offset, c));
+            }
+        }
+
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // One statement per row: a rewritten batch reports SUCCESS_NO_INFO for every row,
+        // which can't tell a claimed reminder from one already sent
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<NotificationService.Event> events = new ArrayList<>(due.size());
+        for (Due d : due) {
+            Current c = d.current();
+            // 0 means it was already sent, e.g. before a restart or by another node
+            if (jdbcTemplate.update(CLAIM_SQL, d.appointmentId(), c.date(), c.time(), d.offsetMinutes(), now) == 0) {
+                continue;
+            }
+            events.add(NotificationService.Event.forAppointment(NotificationTemplate.APPOINTMENT_REMINDER,
+                    d.appointmentId(), c.doctorId(), c.patientId(), null, c.patientName(), c.date(), c.time()));
+        }
+        notificationService.publish(events);
+    }
+
+    // The wheel entry for the reminder offsetMinutes before start
+    long[] entry(Long appointmentId, int offsetMinutes, LocalDateTime start) {
+        for (int i = 0; i < this.offsetMinutes.length; i++) {
+            if (this.offsetMinutes[i] == offsetMinutes) {
+                return new long[] {key(appointmentId, i), toMillis(start) - offsetMinutes * 60_000L};
+            }
+        }
+        throw new IllegalArgumentException("Not a reminder offset: " + offsetMinutes);
+    }
+
+    private static long key(Long appointmentId, int offsetIndex) {
+        return appointmentId * MAX_OFFSETS + offsetIndex;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private Runnable logged(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Appointment reminder task failed", e);
+            }
+        };
+    }
+
+    private record Current(Long doctorId, Long patientId, String patientName,
+                           LocalDate date, LocalTime time, String status) {
+    }
+
+    private record Due(Long appointmentId, int offsetMinutes, Current current) {
+    }
+}
@@ -1,20 +1,43 @@
 package com.example.demo.service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.example.demo.dto.AppointmentPage;
 import com.example.demo.dto.AppointmentRequest;
 import com.example.demo.dto.AppointmentResponse;
 import com.example.demo.dto.AppointmentStatus;
+import com.example.demo.dto.BatchStatusRequest;
+import com.example.demo.dto.BatchStatusResult;
 import com.example.demo.dto.RescheduleRequest;
+import com.example.demo.dto.SlotHoldResponse;
 import com.example.demo.entity.Appointment;
 
 import com.example.demo.entity.User;
 import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.AppointmentStatusView;
+import com.example.demo.repository.ArchivedAppointmentRepository;
+import com.example.demo.repository.BookedSlotView;
 import com.example.demo.repository.UserRepository;
 
 @Service
@@ -22,22 +45,60 @@ public class AppointmentService {
 
         private static final Logger logger = LoggerFactory.getLogger(AppointmentService.class);
 
+        // widest window the range availability endpoint answers in one call
+        private static final int MAX_AVAILABILITY_DAYS = 62;
+
+        private static final int DEFAULT_PAGE_SIZE = 20;
+        private static final int MAX_PAGE_SIZE = 100;
+
+        // a batch only moves appointments out of these states; others go one by one
+        private static final List<AppointmentStatus> BATCH_FROM_STATUSES =
+                List.of(AppointmentStatus.PENDING, AppointmentStatus.APPROVED);
+        private static final int MAX_BATCH_SIZE = 200;
+
+        private static final int MIN_DURATION_MINUTES = 5;
+        private static final int MAX_DURATION_MINUTES = 240;
+
+        // page order of both tables, newest first
+        private static final Comparator<AppointmentResponse> NEWEST_FIRST = Comparator
+                .comparing(AppointmentResponse::getAppointmentDate)
+                .thenComparing(AppointmentResponse::getAppointmentTime)
+                .thenComparing(AppointmentResponse::getId)
+                .reversed();
+
         private final AppointmentRepository appointmentRepository;
         private final UserRepository userRepository;
-        private final NotificationService notificationService;
+        private final NotificationOutbox notificationOutbox;
+        private final TransactionTemplate transactionTemplate;
+        private final SlotAvailabilityIndex slotAvailabilityIndex;
+        private final DoctorScheduleService doctorScheduleService;
+        private final SlotReservationService slotReservationService;
+        private final WaitlistService waitlistService;
+        private final ArchivedAppointmentRepository archivedAppointmentRepository;
+        private final AppointmentArchiver appointmentArchiver;
 
         public AppointmentService(AppointmentRepository appointmentRepository,
                                                           UserRepository userRepository,
-                                                          NotificationService notificationService) {
+                                                          NotificationOutbox notificationOutbox,
+                                                          PlatformTransactionManager transactionManager,
+                                                          SlotAvailabilityIndex slotAvailabilityIndex,
+                                                          DoctorScheduleService doctorScheduleService,
+                                                          SlotReservationService slotReservationService,
+                                                          WaitlistService waitlistService,
+                                                          ArchivedAppointmentRepository archivedAppointmentRepository,
+                                                          AppointmentArchiver appointmentArchiver) {
                 this.appointmentRepository = appointmentRepository;
                 this.userRepository = userRepository;
-                this.notificationService = notificationService;
+                this.notificationOutbox = notificationOutbox;
+                this.transactionTemplate = new TransactionTemplate(transactionManager);
+                this.slotAvailabilityIndex = slotAvailabilityIndex;
+                this.doctorScheduleService = doctorScheduleService;
+                this.slotReservationService = slotReservationService;
+                this.waitlistService = waitlistService;
+                this.archivedAppointmentRepository = archivedAppointmentRepository;
+                this.appointmentArchiver = appointmentArchiver;
         }
 
-    private AppointmentResponse mapToResponse(Appointment appointment) {
-    return new AppointmentResponse(appointment);
-}
-
 
     public void bookAppointment(AppointmentRequest request, String patientEmail) {
 
@@ -54,56 +115,94 @@ public class AppointmentService {
             throw new RuntimeException("Selected user is not a doctor");
         }
 
-        // 3️⃣ Check if slot already booked
-        boolean exists = appointmentRepository
-                .existsByDoctorAndAppointmentDateAndAppointmentTime(
-                        doctor,
-                        request.getDate(),
-                        request.getTime()
-                );
+        // Time must start a run of the doctor's scheduled slots long enough for the visit
+        int minutes = durationOf(request.getDurationMinutes(),
+                doctorScheduleService.slotMinutes(doctor.getId(), request.getDate()));
 
-        if (exists) {
-            throw new RuntimeException("Slot already booked");
+        if (!doctorScheduleService.fits(doctor.getId(), request.getDate(), request.getTime(), minutes)) {
+            throw new RuntimeException("Selected time is not an available slot");
         }
 
-        // 4️⃣ Save appointment
-        Appointment appointment = new Appointment();
-        appointment.setPatient(patient);
-        appointment.setDoctor(doctor);
-        appointment.setAppointmentDate(request.getDate());
-        appointment.setAppointmentTime(request.getTime());
-        appointment.setReason(request.getReason());
-        appointment.setStatus(AppointmentStatus.PENDING);
+        // a slot offered to a waitlisted patient is theirs until the offer runs out
+        if (waitlistService.heldForOther(doctor.getId(), request.getDate(), request.getTime(), request.getHoldToken())) {
+            throw new RuntimeException("Slot is held for a waitlisted patient");
+        }
 
-        appointmentRepository.save(appointment);
+        // 3️⃣ Hold the slot in-process; a contested slot is refused here without a query
+        String hold = slotReservationService.claim(
+                doctor.getId(),
+                request.getDate(),
+                request.getTime(),
+                request.getHoldToken()
+        );
 
-        // Create notifications for doctor and patient
+        if (hold == null) {
+            throw new RuntimeException("Slot already booked");
+        }
+
+        Appointment appointment = new Appointment();
         try {
-            String doctorMsg = "New appointment request from " + patient.getName()
-                    + " on " + appointment.getAppointmentDate() + " at " + appointment.getAppointmentTime();
-
-            notificationService.createNotification(
-                    doctor,
-                    patient,
-                    "APPOINTMENT_REQUEST",
-                    doctorMsg,
-                    appointment
-            );
-
-            String patientMsg = "Your appointment request with Dr. " + doctor.getName()
-                    + " is created and pending approval.";
-
-            notificationService.createNotification(
-                    patient,
-                    doctor,
-                    "APPOINTMENT_CREATED",
-                    patientMsg,
-                    appointment
-            );
-                } catch (Exception e) {
-                        // notification failure should not break booking flow; log full stack for debugging
-                        logger.error("Failed to create notifications", e);
+            // takes the whole interval, refused if it overlaps any booking
+            if (!slotAvailabilityIndex.reserve(doctor.getId(), request.getDate(), request.getTime(), minutes)) {
+                throw new RuntimeException("Slot already booked");
+            }
+
+            // 4️⃣ Save appointment
+            appointment.setPatient(patient);
+            appointment.setDoctor(doctor);
+            appointment.setAppointmentDate(request.getDate());
+            appointment.setAppointmentTime(request.getTime());
+            appointment.setDurationMinutes(minutes);
+            appointment.setReason(request.getReason());
+            appointment.setStatus(AppointmentStatus.PENDING);
+
+            try {
+                saveWithEvent(appointment, NotificationOutbox.EventType.BOOKED, true);
+            } catch (RuntimeException e) {
+                slotAvailabilityIndex.markFree(doctor.getId(), request.getDate(), request.getTime(), minutes);
+                if (e instanceof DataIntegrityViolationException) {
+                    // another node won the unique key
+                    throw new RuntimeException("Slot already booked");
                 }
+                throw e;
+            }
+        } finally {
+            slotReservationService.release(doctor.getId(), request.getDate(), request.getTime(), hold);
+        }
+
+        waitlistService.booked(patient.getId(), doctor.getId());
+    }
+
+
+    // Holds a slot for the patient while they finish the booking form
+    public SlotHoldResponse holdSlot(AppointmentRequest request) {
+
+        int minutes = durationOf(request.getDurationMinutes(),
+                doctorScheduleService.slotMinutes(request.getDoctorId(), request.getDate()));
+
+        if (!doctorScheduleService.fits(request.getDoctorId(), request.getDate(), request.getTime(), minutes)) {
+            throw new RuntimeException("Selected time is not an available slot");
+        }
+
+        if (slotAvailabilityIndex.overlaps(request.getDoctorId(), request.getDate(), request.getTime(), minutes)) {
+            throw new RuntimeException("Slot already booked");
+        }
+
+        if (waitlistService.heldForOther(request.getDoctorId(), request.getDate(), request.getTime(), null)) {
+            throw new RuntimeException("Slot is held for a waitlisted patient");
+        }
+
+        String token = slotReservationService.tryHold(
+                request.getDoctorId(),
+                request.getDate(),
+                request.getTime()
+        );
+
+        if (token == null) {
+            throw new RuntimeException("Slot is being booked by someone else");
+        }
+
+        return new SlotHoldResponse(token, LocalDateTime.now().plus(SlotReservationService.HOLD_TTL));
     }
 
 
@@ -116,10 +215,172 @@ public class AppointmentService {
         throw new RuntimeException("Unauthorized access");
     }
 
-    return appointmentRepository.findByDoctorId(doctor.getId())
-        .stream()
-        .map(this::mapToResponse)
-        .toList();
+    return withArchive(appointmentRepository.findResponsesByDoctorId(doctor.getId()),
+            archivedAppointmentRepository.findResponsesByDoctorId(doctor.getId()));
+}
+
+public AppointmentPage getDoctorAppointmentPage(String doctorEmail,
+                                                String status,
+                                                LocalDate from,
+                                                LocalDate to,
+                                                String cursor,
+                                                Integer limit) {
+
+    User doctor = userRepository.findByEmail(doctorEmail)
+            .orElseThrow(() -> new RuntimeException("Doctor not found"));
+
+    if (!doctor.getRole().name().equals("DOCTOR")) {
+        throw new RuntimeException("Unauthorized access");
+    }
+
+    PageCursor after = PageCursor.parse(cursor);
+    int size = pageSize(limit);
+
+    AppointmentStatus wanted = parseStatus(status);
+
+    List<AppointmentResponse> rows = appointmentRepository.findDoctorPage(
+            doctor.getId(), wanted, from, to,
+            after.date(), after.time(), after.id(),
+            PageRequest.of(0, size + 1)
+    );
+
+    if (readsArchive(from)) {
+        rows = mergeNewestFirst(rows, archivedAppointmentRepository.findDoctorPage(
+                doctor.getId(), wanted, from, to,
+                after.date(), after.time(), after.id(),
+                PageRequest.of(0, size + 1)
+        ), size + 1);
+    }
+
+    return toPage(rows, size);
+}
+
+public AppointmentPage getPatientAppointmentPage(String patientEmail,
+                                                 String status,
+                                                 LocalDate from,
+                                                 LocalDate to,
+                                                 String cursor,
+                                                 Integer limit) {
+
+    User patient = userRepository.findByEmail(patientEmail)
+            .orElseThrow(() -> new RuntimeException("Patient not found"));
+
+    if (!patient.getRole().name().equals("PATIENT")) {
+        throw new RuntimeException("Unauthorized access");
+    }
+
+    PageCursor after = PageCursor.parse(cursor);
+    int size = pageSize(limit);
+
+    AppointmentStatus wanted = parseStatus(status);
+
+    List<AppointmentResponse> rows = appointmentRepository.findPatientPage(
+            patient.getId(), wanted, from, to,
+            after.date(), after.time(), after.id(),
+            PageRequest.of(0, size + 1)
+    );
+
+    if (readsArchive(from)) {
+        rows = mergeNewestFirst(rows, archivedAppointmentRepository.findPatientPage(
+                patient.getId(), wanted, from, to,
+                after.date(), after.time(), after.id(),
+                PageRequest.of(0, size + 1)
+        ), size + 1);
+    }
+
+    return toPage(rows, size);
+}
+
+private int durationOf(Integer requested, int fallback) {
+    int minutes = requested != null ? requested : fallback;
+    if (minutes < MIN_DURATION_MINUTES || minutes > MAX_DURATION_MINUTES) {
+        throw new RuntimeException("Duration must be between "
+                + MIN_DURATION_MINUTES + " and " + MAX_DURATION_MINUTES + " minutes");
+    }
+    return minutes;
+}
+
+private int pageSize(Integer limit) {
+    if (limit == null || limit <= 0) {
+        return DEFAULT_PAGE_SIZE;
+    }
+    return Math.min(limit, MAX_PAGE_SIZE);
+}
+
+private AppointmentStatus parseStatus(String status) {
+    return status == null || status.isBlank() ? null : AppointmentStatus.valueOf(status);
+}
+
+// the archive only holds rows dated before the horizon
+private boolean readsArchive(LocalDate from) {
+    return from == null || from.isBefore(appointmentArchiver.horizon());
+}
+
+// The whole history: archived rows are all older than the hot ones, so they go last
+private List<AppointmentResponse> withArchive(List<AppointmentResponse> hot, List<AppointmentResponse> cold) {
+    if (cold.isEmpty()) {
+        return hot;
+    }
+    List<AppointmentResponse> all = new ArrayList<>(hot.size() + cold.size());
+    all.addAll(hot);
+    all.addAll(cold);
+    return all;
+}
+
+// both lists are already newest first, keep the first limit rows of the two
+private List<AppointmentResponse> mergeNewestFirst(List<AppointmentResponse> hot,
+                                                   List<AppointmentResponse> cold,
+                                                   int limit) {
+    if (cold.isEmpty()) {
+        return hot;
+    }
+
+    List<AppointmentResponse> merged = new ArrayList<>(Math.min(limit, hot.size() + cold.size()));
+    int i = 0;
+    int j = 0;
+    while (merged.size() < limit && (i < hot.size() || j < cold.size())) {
+        if (j >= cold.size() || (i < hot.size() && NEWEST_FIRST.compare(hot.get(i), cold.get(j)) <= 0)) {
+            merged.add(hot.get(i++));
+        } else {
+            merged.add(cold.get(j++));
+        }
+    }
+    return merged;
+}
+
+// one extra row was fetched to know whether another page exists
+private AppointmentPage toPage(List<AppointmentResponse> rows, int size) {
+
+    boolean more = rows.size() > size;
+    List<AppointmentResponse> page = more ? rows.subList(0, size) : rows;
+
+    String next = null;
+    if (more) {
+        AppointmentResponse last = page.get(page.size() - 1);
+        next = new PageCursor(last.getAppointmentDate(), last.getAppointmentTime(), last.getId()).encode();
+    }
+
+    return new AppointmentPage(List.copyOf(page), next);
+}
+
+// Position of the last row served, as "date,time,id"
+private record PageCursor(LocalDate date, LocalTime time, Long id) {
+
+    static PageCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new PageCursor(null, null, null);
+        }
+        try {
+            String[] parts = cursor.split(",");
+            return new PageCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        return date + "," + time + "," + id;
+    }
 }
 
 public List<AppointmentResponse> getCompletedAppointments(String patientEmail) {
@@ -127,49 +388,39 @@ public List<AppointmentResponse> getCompletedAppointments(String patientEmail) {
     User patient = userRepository.findByEmail(patientEmail)
             .orElseThrow();
 
-    return appointmentRepository
-            .findByPatientAndStatus(patient, AppointmentStatus.COMPLETED)
-            .stream()
-            .map(AppointmentResponse::new)
-            .toList();
+    return withArchive(
+            appointmentRepository.findResponsesByPatientIdAndStatus(patient.getId(), AppointmentStatus.COMPLETED),
+            archivedAppointmentRepository.findResponsesByPatientIdAndStatus(patient.getId(), AppointmentStatus.COMPLETED));
 }
 
 public List<AppointmentResponse> getTodayAppointmentsForDoctor(String email) {
 
     LocalDate today = LocalDate.now();
 
-    List<Appointment> appointments =
-            appointmentRepository.findByDoctorEmailAndAppointmentDateAndStatus(
-                    email,
-                    today,
-                    AppointmentStatus.APPROVED
-            );
-
-    return appointments.stream()
-            .map(AppointmentResponse::new)
-            .toList();
+    return appointmentRepository.findResponsesByDoctorEmailAndDateAndStatus(
+            email,
+            today,
+            AppointmentStatus.APPROVED
+    );
 }
 
 public List<String> getAvailableSlots(Long doctorId, LocalDate date) {
 
-    User doctor = userRepository.findById(doctorId)
-            .orElseThrow(() -> new RuntimeException("Doctor not found"));
+    // served from the in-memory index, only a cold day goes to the DB
+    return slotAvailabilityIndex.getAvailableSlots(doctorId, date);
+}
 
-    // Clinic fixed timings (you can later move this to DB)
-    List<String> allSlots = List.of(
-            "09:00", "10:30", "12:00", "15:00", "16:30"
-    );
+public Map<LocalDate, List<String>> getAvailableSlots(Long doctorId, LocalDate from, LocalDate to) {
 
-    List<Appointment> booked =
-            appointmentRepository.findByDoctorAndAppointmentDate(doctor, date);
+    if (to.isBefore(from)) {
+        throw new RuntimeException("'to' must not be before 'from'");
+    }
 
-    List<String> bookedTimes = booked.stream()
-            .map(a -> a.getAppointmentTime().toString())
-            .toList();
+    if (ChronoUnit.DAYS.between(from, to) >= MAX_AVAILABILITY_DAYS) {
+        throw new RuntimeException("Date range too large (max " + MAX_AVAILABILITY_DAYS + " days)");
+    }
 
-    return allSlots.stream()
-            .filter(slot -> !bookedTimes.contains(slot))
-            .toList();
+    return slotAvailabilityIndex.getAvailableSlots(doctorId, from, to);
 }
 
 public void rescheduleAppointment(RescheduleRequest request,
@@ -188,22 +439,32 @@ public void rescheduleAppointment(RescheduleRequest request,
         throw new RuntimeException("Cannot reschedule cancelled appointment");
     }
 
-    // 🔥 Prevent double booking (excluding current appointment)
-    boolean exists = appointmentRepository
-            .existsByDoctorAndAppointmentDateAndAppointmentTimeAndIdNot(
-                    appointment.getDoctor(),
-                    request.getDate(),
-                    request.getTime(),
-                    appointment.getId()
-            );
+    Long doctorId = appointment.getDoctor().getId();
+    LocalDate oldDate = appointment.getAppointmentDate();
+    LocalTime oldTime = appointment.getAppointmentTime();
+    int oldMinutes = appointment.getDurationMinutes();
+    int minutes = durationOf(request.getDurationMinutes(), oldMinutes);
+    boolean heldSlot = appointment.getStatus().occupiesSlot();
+
+    // The new time must start a run of the doctor's slots long enough for the visit
+    if (!doctorScheduleService.fits(doctorId, request.getDate(), request.getTime(), minutes)) {
+        throw new RuntimeException("Selected time is not an available slot");
+    }
+
+    // 🔥 Prevent double booking; the appointment's own interval doesn't count
+    boolean reserved = heldSlot
+            ? slotAvailabilityIndex.reserveMove(doctorId, oldDate, oldTime, oldMinutes,
+                    request.getDate(), request.getTime(), minutes)
+            : slotAvailabilityIndex.reserve(doctorId, request.getDate(), request.getTime(), minutes);
 
-    if (exists) {
+    if (!reserved) {
         throw new RuntimeException("Selected slot already booked");
     }
 
     // ✅ Update date & time
     appointment.setAppointmentDate(request.getDate());
     appointment.setAppointmentTime(request.getTime());
+    appointment.setDurationMinutes(minutes);
 
     // Optional note
     if (request.getNote() != null && !request.getNote().isBlank()) {
@@ -213,41 +474,20 @@ public void rescheduleAppointment(RescheduleRequest request,
     // 🔥 Keep APPROVED
     appointment.setStatus(AppointmentStatus.APPROVED);
 
-    appointmentRepository.save(appointment);
-        // Notify patient about reschedule
-        try {
-                User patient = appointment.getPatient();
-                User doctor = appointment.getDoctor();
-                String pmsg = "Your appointment with Dr. " + doctor.getName()
-                                + " has been rescheduled to " + appointment.getAppointmentDate()
-                                + " at " + appointment.getAppointmentTime();
-
-                notificationService.createNotification(
-                                patient,
-                                doctor,
-                                "APPOINTMENT_RESCHEDULED",
-                                pmsg,
-                                appointment
-                );
-                // Notify doctor about the reschedule as well
-                try {
-                    String dmsg = "You rescheduled the appointment with " + patient.getName()
-                                    + " to " + appointment.getAppointmentDate()
-                                    + " at " + appointment.getAppointmentTime();
-
-                    notificationService.createNotification(
-                                    doctor,
-                                    doctor,
-                                    "APPOINTMENT_RESCHEDULED",
-                                    dmsg,
-                                    appointment
-                    );
-                } catch (Exception ex) {
-                    logger.error("Failed to create reschedule notification for doctor", ex);
-                }
-        } catch (Exception e) {
-                logger.error("Failed to create reschedule notification", e);
+    try {
+        saveWithEvent(appointment, NotificationOutbox.EventType.RESCHEDULED, true);
+    } catch (RuntimeException e) {
+        slotAvailabilityIndex.markFree(doctorId, request.getDate(), request.getTime(), minutes);
+        if (e instanceof DataIntegrityViolationException) {
+            throw new RuntimeException("Selected slot already booked");
         }
+        throw e;
+    }
+
+    if (heldSlot) {
+        slotAvailabilityIndex.markFree(doctorId, oldDate, oldTime, oldMinutes);
+        waitlistService.slotFreed(doctorId, oldDate, oldTime);
+    }
 }
 
 public void updateAppointmentStatus(Long appointmentId,
@@ -261,49 +501,166 @@ public void updateAppointmentStatus(Long appointmentId,
         throw new RuntimeException("Unauthorized action");
     }
 
-    appointment.setStatus(AppointmentStatus.valueOf(status));
-    appointmentRepository.save(appointment);
-        // Notify patient about status change (approved/cancelled/rejected)
-        try {
-                User patient = appointment.getPatient();
-                User doctor = appointment.getDoctor();
-                String statusUpper = appointment.getStatus().name();
-                String msg = null;
-
-                if (statusUpper.equals("CANCELLED")) {
-                        msg = "Your appointment on " + appointment.getAppointmentDate() + " at " + appointment.getAppointmentTime() + " was cancelled by Dr. " + doctor.getName();
-                        notificationService.createNotification(patient, doctor, "APPOINTMENT_CANCELLED", msg, appointment);
-                } else if (statusUpper.equals("APPROVED")) {
-                        msg = "Your appointment on " + appointment.getAppointmentDate() + " at " + appointment.getAppointmentTime() + " has been approved by Dr. " + doctor.getName();
-                        notificationService.createNotification(patient, doctor, "APPOINTMENT_APPROVED", msg, appointment);
-                } else if (statusUpper.equals("REJECTED")) {
-                        msg = "Your appointment request on " + appointment.getAppointmentDate() + " at " + appointment.getAppointmentTime() + " was rejected by Dr. " + doctor.getName();
-                        notificationService.createNotification(patient, doctor, "APPOINTMENT_REJECTED", msg, appointment);
-                }
-                                // Also notify the doctor about the action they performed
-                                try {
-                                        String dmsg = null;
-
-                                        if (statusUpper.equals("CANCELLED")) {
-                                                dmsg = "You cancelled the appointment on " + appointment.getAppointmentDate() + " at " + appointment.getAppointmentTime() + " for " + patient.getName();
-                                        } else if (statusUpper.equals("APPROVED")) {
-                                                dmsg = "You approved the appointment on " + appointment.getAppointmentDate() + " at " + appointment.getAppointmentTime() + " for " + patient.getName();
-                                        } else if (statusUpper.equals("REJECTED")) {
-                                                dmsg = "You rejected the appointment request on " + appointment.getAppointmentDate() + " at " + appointment.getAppointmentTime() + " for " + patient.getName();
-                                        }
-
-                                        if (dmsg != null) {
-                                                notificationService.createNotification(doctor, doctor, "APPOINTMENT_STATUS_CHANGED", dmsg, appointment);
-                                        }
-                                } catch (Exception ex) {
-                                        logger.error("Failed to create status-change notification for doctor", ex);
-                                }
-        } catch (Exception e) {
-                logger.error("Failed to create status-change notification", e);
+    boolean heldSlot = appointment.getStatus().occupiesSlot();
+    AppointmentStatus newStatus = AppointmentStatus.valueOf(status);
+
+    Long doctorId = appointment.getDoctor().getId();
+    boolean reactivated = !heldSlot && newStatus.occupiesSlot();
+
+    // 🚫 Re-activating a cancelled appointment takes its interval back, refused if it overlaps a booking
+    if (reactivated && !slotAvailabilityIndex.reserve(doctorId, appointment.getAppointmentDate(),
+            appointment.getAppointmentTime(), appointment.getDurationMinutes())) {
+        throw new RuntimeException("Slot already booked");
+    }
+
+    appointment.setStatus(newStatus);
+    try {
+        saveWithEvent(appointment, NotificationOutbox.EventType.STATUS_CHANGED, reactivated);
+    } catch (RuntimeException e) {
+        if (reactivated) {
+            slotAvailabilityIndex.markFree(doctorId, appointment.getAppointmentDate(),
+                    appointment.getAppointmentTime(), appointment.getDurationMinutes());
+            if (e instanceof DataIntegrityViolationException) {
+                // another node won the unique key
+                throw new RuntimeException("Slot already booked");
+            }
         }
+        throw e;
+    }
+
+    if (heldSlot && !newStatus.occupiesSlot()) {
+        slotAvailabilityIndex.markFree(doctorId, appointment.getAppointmentDate(), appointment.getAppointmentTime(),
+                appointment.getDurationMinutes());
+        waitlistService.slotFreed(doctorId, appointment.getAppointmentDate(), appointment.getAppointmentTime());
+    }
 }
 
 
+@Transactional
+public List<BatchStatusResult> updateAppointmentStatuses(BatchStatusRequest request,
+                                                         String doctorEmail) {
+
+    User doctor = userRepository.findByEmail(doctorEmail)
+            .orElseThrow(() -> new RuntimeException("Doctor not found"));
+
+    if (!doctor.getRole().name().equals("DOCTOR")) {
+        throw new RuntimeException("Unauthorized access");
+    }
+
+    AppointmentStatus target = AppointmentStatus.valueOf(request.getStatus());
+    if (target == AppointmentStatus.PENDING) {
+        throw new RuntimeException("Appointments cannot be moved back to PENDING");
+    }
+
+    List<Long> ids = request.getAppointmentIds() == null
+            ? List.of()
+            : new ArrayList<>(new LinkedHashSet<>(request.getAppointmentIds()));
+
+    if (ids.size() > MAX_BATCH_SIZE) {
+        throw new RuntimeException("Too many appointments (max " + MAX_BATCH_SIZE + ")");
+    }
+
+    // 1️⃣ One query for ownership and current state
+    Map<Long, AppointmentStatusView> rows = appointmentRepository.findStatusViews(ids)
+            .stream()
+            .collect(Collectors.toMap(AppointmentStatusView::getId, Function.identity()));
+
+    Map<Long, BatchStatusResult> results = new LinkedHashMap<>();
+    List<Long> eligible = new ArrayList<>();
+
+    for (Long id : ids) {
+        AppointmentStatusView row = rows.get(id);
+        if (row == null) {
+            results.put(id, new BatchStatusResult(id, false, "Appointment not found"));
+        } else if (!row.getDoctorId().equals(doctor.getId())) {
+            results.put(id, new BatchStatusResult(id, false, "Unauthorized action"));
+        } else if (!BATCH_FROM_STATUSES.contains(row.getStatus()) || row.getStatus() == target) {
+            results.put(id, new BatchStatusResult(id, false, "Cannot change a " + row.getStatus() + " appointment to " + target));
+        } else {
+            results.put(id, null);
+            eligible.add(id);
+        }
+    }
+
+    if (eligible.isEmpty()) {
+        return new ArrayList<>(results.values());
+    }
+
+    // 2️⃣ One conditional UPDATE; rows changed since the read are left alone
+    int updated = appointmentRepository.updateStatusInBulk(
+            eligible,
+            doctor.getId(),
+            BATCH_FROM_STATUSES,
+            target,
+            target.occupiesSlot() ? Boolean.TRUE : null
+    );
+
+    Set<Long> moved = updated == eligible.size()
+            ? new LinkedHashSet<>(eligible)
+            : appointmentRepository.findStatusViews(eligible).stream()
+                    .filter(v -> v.getStatus() == target)
+                    .map(AppointmentStatusView::getId)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+
+    // 3️⃣ Slot bookkeeping, and one outbox event per moved row in this transaction
+    List<NotificationOutbox.Event> events = new ArrayList<>();
+
+    for (Long id : eligible) {
+        if (!moved.contains(id)) {
+            results.put(id, new BatchStatusResult(id, false, "Appointment was changed concurrently"));
+            continue;
+        }
+        results.put(id, new BatchStatusResult(id, true, null));
+
+        AppointmentStatusView row = rows.get(id);
+        if (!target.occupiesSlot()) {
+            slotAvailabilityIndex.markFree(doctor.getId(), row.getAppointmentDate(), row.getAppointmentTime(),
+                    row.getDurationMinutes());
+            waitlistService.slotFreed(doctor.getId(), row.getAppointmentDate(), row.getAppointmentTime());
+        }
+
+        events.add(new NotificationOutbox.Event(NotificationOutbox.EventType.STATUS_CHANGED, id,
+                doctor.getId(), row.getPatientId(), row.getAppointmentDate(), row.getAppointmentTime(), target));
+    }
+
+    notificationOutbox.append(events);
+
+    return new ArrayList<>(results.values());
+}
+
+/**
+ * Saves the change and its outbox event together; notifications follow
+ * asynchronously. A change that takes a slot is also checked against the doctor's
+ * other bookings of the day in the database, under a lock on the doctor, since
+ * the in-memory index only knows this node's bookings and the unique key only
+ * catches identical start times.
+ */
+private Appointment saveWithEvent(Appointment appointment, NotificationOutbox.EventType type, boolean takesSlot) {
+    return transactionTemplate.execute(tx -> {
+        if (takesSlot) {
+            checkNoOverlap(appointment);
+        }
+        Appointment saved = appointmentRepository.save(appointment);
+        notificationOutbox.append(NotificationOutbox.Event.of(type, saved));
+        return saved;
+    });
+}
+
+// Caller maps the exception to its own "already booked" message, as for the unique key
+private void checkNoOverlap(Appointment appointment) {
+    Long doctorId = appointment.getDoctor().getId();
+    appointmentRepository.lockDoctor(doctorId);
+
+    int start = DoctorScheduleService.minuteOfDay(appointment.getAppointmentTime());
+    int end = start + appointment.getDurationMinutes();
+    for (BookedSlotView other : appointmentRepository.findBookedSlotsOn(doctorId, appointment.getAppointmentDate())) {
+        int from = DoctorScheduleService.minuteOfDay(other.getAppointmentTime());
+        if (!other.getId().equals(appointment.getId()) && from < end && start < from + other.getDurationMinutes()) {
+            throw new DataIntegrityViolationException("Appointment overlaps another booking of the doctor");
+        }
+    }
+}
+
 public List<AppointmentResponse> getPatientAppointments(String patientEmail) {
 
     User patient = userRepository.findByEmail(patientEmail)
@@ -313,10 +670,8 @@ public List<AppointmentResponse> getPatientAppointments(String patientEmail) {
         throw new RuntimeException("Unauthorized access");
     }
 
-    return appointmentRepository.findByPatient(patient)
-            .stream()
-            .map(this::mapToResponse)
-            .toList();
+    return withArchive(appointmentRepository.findResponsesByPatientId(patient.getId()),
+            archivedAppointmentRepository.findResponsesByPatientId(patient.getId()));
 }
 
 }
@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of booked [start, end) minute intervals for one doctor-day.
+ *
+ * A flattened interval tree: intervals are kept sorted by start next to a
+ * running maximum of their ends, so an overlap query is one binary search.
+ * Updates return a new instance, matching the copy-on-write maps that hold it.
+ */
+final class BookedIntervals {
+
+    static final BookedIntervals EMPTY = new BookedIntervals(new int[0], new int[0]);
+
+    private final int[] starts;
+    private final int[] ends;
+    // maxEnd[i] is the largest end among intervals 0..i
+    private final int[] maxEnd;
+
+    private BookedIntervals(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnd = new int[ends.length];
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < ends.length; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnd[i] = max;
+        }
+    }
+
+    // Builds from unsorted parallel arrays, e.g. a day loaded from the database
+    static BookedIntervals of(int[] starts, int[] ends) {
+        // minutes are small and non-negative, so (start, end) packs into one sortable long
+        long[] packed = new long[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            packed[i] = ((long) starts[i] << 32) | ends[i];
+        }
+        Arrays.sort(packed);
+
+        int[] s = new int[packed.length];
+        int[] e = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            s[i] = (int) (packed[i] >>> 32);
+            e[i] = (int) packed[i];
+        }
+        return new BookedIntervals(s, e);
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    // True when some booked interval shares a minute with [start, end)
+    boolean overlaps(int start, int end) {
+        // intervals starting at or after end can't overlap, the rest overlap
+        // exactly when one of them ends after start
+        int k = lowerBound(end);
+        return k > 0 && maxEnd[k - 1] > start;
+    }
+
+    BookedIntervals with(int start, int end) {
+        int at = lowerBound(start);
+        while (at < starts.length && starts[at] == start && ends[at] < end) {
+            at++;
+        }
+
+        int[] s = new int[starts.length + 1];
+        int[] e = new int[ends.length + 1];
+        System.arraycopy(starts, 0, s, 0, at);
+        System.arraycopy(ends, 0, e, 0, at);
+        s[at] = start;
+        e[at] = end;
+        System.arraycopy(starts, at, s, at + 1, starts.length - at);
+        System.arraycopy(ends, at, e, at + 1, ends.length - at);
+        return new BookedIntervals(s, e);
+    }
+
+    // Drops one interval equal to [start, end), if there is one
+    BookedIntervals without(int start, int end) {
+        for (int i = lowerBound(start); i < starts.length && starts[i] == start; i++) {
+            if (ends[i] == end) {
+                int[] s = new int[starts.length - 1];
+                int[] e = new int[ends.length - 1];
+                System.arraycopy(starts, 0, s, 0, i);
+                System.arraycopy(ends, 0, e, 0, i);
+                System.arraycopy(starts, i + 1, s, i, starts.length - i - 1);
+                System.arraycopy(ends, i + 1, e, i, ends.length - i - 1);
+                return new BookedIntervals(s, e);
+            }
+        }
+        return this;
+    }
+
+    // Free [start, end) stretches between dayStart and dayEnd, in order
+    List<int[]> gaps(int dayStart, int dayEnd) {
+        List<int[]> gaps = new ArrayList<>(starts.length + 1);
+        int cursor = dayStart;
+        for (int i = 0; i < starts.length && cursor < dayEnd; i++) {
+            if (starts[i] > cursor) {
+                gaps.add(new int[] {cursor, Math.min(starts[i], dayEnd)});
+            }
+            cursor = Math.max(cursor, ends[i]);
+        }
+        if (cursor < dayEnd) {
+            gaps.add(new int[] {cursor, dayEnd});
+        }
+        return gaps;
+    }
+
+    // First index whose start is >= minute
+    private int lowerBound(int minute) {
+        int i = Arrays.binarySearch(starts, minute);
+        if (i < 0) {
+            return -i - 1;
+        }
+        while (i > 0 && starts[i - 1] == minute) {
+            i--;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.demo.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.BroadcastRequest;
+import com.example.demo.dto.BroadcastResponse;
+import com.example.demo.entity.NotificationTemplate;
+import com.example.demo.entity.Role;
+import com.example.demo.repository.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Admin announcements to every user, or to some roles and hospitals.
+ *
+ * A broadcast is one notification event; its receipts are written one user
+ * id range per transaction, the range's recipients selected once and
+ * inserted as a single JDBC batch. Each chunk moves the
+ * broadcast's last_user_id and delivered count in the same transaction,
+ * which is the progress an admin sees and where a run that stopped, on
+ * this node or another, carries on. A lease per broadcast keeps two nodes
+ * off the same one.
+ */
+@Service
+public class BroadcastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastService.class);
+
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+    private static final int MAX_HOSPITALS = 100;
+
+    private static final String INSERT_SQL = "insert into broadcast (event_id, created_by, roles, hospital_ids,"
+            + " reference_date, status, last_user_id, max_user_id, total, delivered, created_at)"
+            + " values (?, ?, ?, ?, ?, 'RUNNING', 0, ?, ?, 0, ?)";
+
+    private static final String SELECT_SQL = "select id, event_id, roles, hospital_ids, reference_date, status,"
+            + " last_user_id, max_user_id, total, delivered, created_at, finished_at from broadcast where id = ?";
+
+    private static final String RUNNING_SQL = "select id from broadcast where status = 'RUNNING' order by id";
+
+    // only from where this run last saw it, so a chunk is never counted twice
+    private static final String PROGRESS_SQL = "update broadcast set last_user_id = ?, delivered = delivered + ?"
+            + " where id = ? and last_user_id = ? and status = 'RUNNING'";
+
+    private static final String FINISH_SQL = "update broadcast set status = 'DONE', finished_at = ?"
+            + " where id = ? and status = 'RUNNING'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    // one broadcast at a time
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "broadcast");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // ids with a run queued or going on this node, so resume doesn't pile up more
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    public BroadcastService(JdbcTemplate jdbcTemplate,
+                            UserRepository userRepository,
+                            NotificationService notificationService,
+                            JobLeaseService jobLeaseService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${notifications.broadcast.chunk-size:10000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.jobLeaseService = jobLeaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(100, chunkSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public BroadcastResponse start(BroadcastRequest request, String adminEmail) {
+
+        String message = request.getMessage() == null ? "" : request.getMessage().trim();
+        if (message.isEmpty()) {
+            throw new RuntimeException("Message is required");
+        }
+        if (message.length() > MAX_MESSAGE_LENGTH) {
+            throw new RuntimeException("Message too long (max " + MAX_MESSAGE_LENGTH + " characters)");
+        }
+
+        Target target = Target.of(request.getRoles(), request.getHospitalIds());
+
+        Long adminId = userRepository.findIdByEmail(adminEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Long id = transactionTemplate.execute(tx -> {
+            long eventId = notificationService.createEvent(NotificationTemplate.BROADCAST,
+                    NotificationTemplate.params(message), adminId);
+
+            // users who sign up from here on aren't part of it
+            LocalDate referenceDate = LocalDate.now();
+            List<Object> args = new ArrayList<>();
+            String where = target.where(referenceDate, args);
+            Object[] bounds = jdbcTemplate.queryForObject(
+                    "select count(*), coalesce(max(u.id), 0) from users u where " + where,
+                    (rs, i) -> new Object[] { rs.getInt(1), rs.getLong(2) }, args.toArray());
+
+            KeyHolder key = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                ps.setLong(1, eventId);
+                ps.setLong(2, adminId);
+                ps.setString(3, target.rolesColumn());
+                ps.setString(4, target.hospitalsColumn());
+                ps.setObject(5, referenceDate);
+                ps.setLong(6, (Long) bounds[1]);
+                ps.setInt(7, (Integer) bounds[0]);
+                ps.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
+                return ps;
+            }, key);
+            return key.getKey().longValue();
+        });
+
+        queue(id);
+        return progress(id);
+    }
+
+    public BroadcastResponse progress(Long id) {
+        return load(id).toResponse();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        resume();
+    }
+
+    // Picks up broadcasts a node stopped part way through; the lease skips ones still being run
+    @EveryNode
+    @Scheduled(fixedDelayString = "${notifications.broadcast.resume-ms:60000}", initialDelay = 60000)
+    public void resume() {
+        for (Long id : jdbcTemplate.queryForList(RUNNING_SQL, Long.class)) {
+            queue(id);
+        }
+    }
+
+    private void queue(Long id) {
+        if (!queued.add(id)) {
+            return;
+        }
+        try {
+            worker.execute(logged(() -> {
+                try {
+                    run(id);
+                } finally {
+                    queued.remove(id);
+                }
+            }));
+        } catch (RuntimeException e) {
+            queued.remove(id);
+            throw e;
+        }
+    }
+
+    private void run(long id) {
+        jobLeaseService.runExclusive("broadcast#" + id, () -> {
+
+            Broadcast b = load(id);
+            if (!"RUNNING".equals(b.status())) {
+                return;
+            }
+
+            Target target = Target.parse(b.roles(), b.hospitalIds());
+            List<Object> filterArgs = new ArrayList<>();
+            String where = target.where(b.referenceDate(), filterArgs);
+            String recipientsSql = "select u.id,"
+                    + " case when u.role = 'DOCTOR' then 'DOCTOR' else 'PATIENT' end as audience"
+                    + " from users u where u.id > ? and u.id <= ? and " + where;
+
+            long from = b.lastUserId();
+            while (from < b.maxUserId()) {
+                long after = from;
+                long upTo = Math.min(after + chunkSize, b.maxUserId());
+
+                List<Object> args = new ArrayList<>(filterArgs.size() + 2);
+                args.add(after);
+                args.add(upTo);
+                args.addAll(filterArgs);
+
+                transactionTemplate.executeWithoutResult(tx -> {
+                    int delivered = notificationService.publishTo(b.eventId(), recipientsSql, args.toArray());
+                    if (jdbcTemplate.update(PROGRESS_SQL, upTo, delivered, id, after) != 1) {
+                        // rolls the chunk back; whoever moved it on has it
+                        throw new RuntimeException("Broadcast " + id + " was moved past " + after + " elsewhere");
+                    }
+                });
+                from = upTo;
+            }
+
+            jdbcTemplate.update(FINISH_SQL, Timestamp.valueOf(LocalDateTime.now()), id);
+            logger.info("Broadcast {} delivered to {} users", id,
+                    jdbcTemplate.queryForObject("select delivered from broadcast where id = ?", Integer.class, id));
+        });
+    }
+
+    private Broadcast load(Long id) {
+        List<Broadcast> rows = jdbcTemplate.query(SELECT_SQL, (rs, i) -> new Broadcast(
+                rs.getLong("id"),
+                rs.getLong("event_id"),
+                rs.getString("roles"),
+                rs.getString("hospital_ids"),
+                rs.getObject("reference_date", LocalDate.class),
+                rs.getString("status"),
+                rs.getLong("last_user_id"),
+                rs.getLong("max_user_id"),
+                rs.getInt("total"),
+                rs.getInt("delivered"),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("finished_at", LocalDateTime.class)
+        ), id);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Broadcast not found");
+        }
+        return rows.get(0);
+    }
+
+    private Runnable logged(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                // stays RUNNING from its last chunk, the next resume carries on
+                logger.error("Broadcast task failed", e);
+            }
+        };
+    }
+
+    private record Broadcast(Long id,
+                             Long eventId,
+                             String roles,
+                             String hospitalIds,
+                             LocalDate referenceDate,
+                             String status,
+                             long lastUserId,
+                             long maxUserId,
+                             int total,
+                             int delivered,
+                             LocalDateTime createdAt,
+                             LocalDateTime finishedAt) {
+
+        BroadcastResponse toResponse() {
+            return new BroadcastResponse(id, status, total, delivered, createdAt, finishedAt);
+        }
+    }
+
+    // Who a broadcast reaches; stored as comma separated columns so a resume sees the same
+    private record Target(List<Role> roles, List<Long> hospitalIds) {
+
+        static Target of(List<String> roles, List<Long> hospitalIds) {
+            Set<Role> parsed = new LinkedHashSet<>();
+            if (roles != null) {
+                for (String role : roles) {
+                    try {
+                        parsed.add(Role.valueOf(role.trim().toUpperCase(Locale.ROOT)));
+                    } catch (RuntimeException e) {
+                        throw new RuntimeException("Invalid role: " + role);
+                    }
+                }
+            }
+
+            Set<Long> hospitals = new LinkedHashSet<>();
+            if (hospitalIds != null) {
+                for (Long hospitalId : hospitalIds) {
+                    if (hospitalId == null) {
+                        throw new RuntimeException("Invalid hospital id");
+                    }
+                    hospitals.add(hospitalId);
+                }
+            }
+            if (hospitals.size() > MAX_HOSPITALS) {
+                throw new RuntimeException("Too many hospitals (max " + MAX_HOSPITALS + ")");
+            }
+            return new Target(List.copyOf(parsed), List.copyOf(hospitals));
+        }
+
+        static Target parse(String roles, String hospitalIds) {
+            return of(split(roles), split(hospitalIds).stream().map(Long::valueOf).toList());
+        }
+
+        private static List<String> split(String column) {
+            return column == null || column.isEmpty() ? List.of() : Arrays.asList(column.split(","));
+        }
+
+        String rolesColumn() {
+            return roles.isEmpty() ? null : String.join(",", roles.stream().map(Role::name).toList());
+        }
+
+        String hospitalsColumn() {
+            return hospitalIds.isEmpty() ? null : String.join(",", hospitalIds.stream().map(String::valueOf).toList());
+        }
+
+        // A hospital's people are its doctors and the patients with an appointment from the given day on
+        String where(LocalDate from, List<Object> args) {
+            StringBuilder sql = new StringBuilder("u.enabled = true");
+
+            if (!roles.isEmpty()) {
+                sql.append(" and u.role in (").append(PersistenceSupport.placeholders(roles.size())).append(")");
+                roles.forEach(r -> args.add(r.name()));
+            }
+
+            if (!hospitalIds.isEmpty()) {
+                String in = PersistenceSupport.placeholders(hospitalIds.size());
+                sql.append(" and (exists (select 1 from doctor_profile dp where dp.user_id = u.id")
+                        .append(" and dp.hospital_id in (").append(in).append("))")
+                        .append(" or exists (select 1 from appointment a")
+                        .append(" join doctor_profile dp on dp.user_id = a.doctor_id")
+                        .append(" where a.patient_id = u.id and dp.hospital_id in (").append(in).append(")")
+                        .append(" and a.status in ('PENDING', 'APPROVED') and a.appointment_date >= ?))");
+                args.addAll(hospitalIds);
+                args.addAll(hospitalIds);
+                args.add(from);
+            }
+            return sql.toString();
+        }
+    }
+}
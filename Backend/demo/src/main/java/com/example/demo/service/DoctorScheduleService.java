@@ -0,0 +1,356 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.DoctorScheduleRequest;
+import com.example.demo.dto.DoctorScheduleResponse;
+import com.example.demo.dto.ScheduleRuleRequest;
+import com.example.demo.entity.DoctorProfile;
+import com.example.demo.entity.ScheduleRule;
+import com.example.demo.entity.ScheduleRuleType;
+import com.example.demo.entity.User;
+import com.example.demo.repository.DoctorProfileRepository;
+import com.example.demo.repository.ScheduleRuleRepository;
+import com.example.demo.repository.UserRepository;
+
+/**
+ * Turns a doctor's schedule rules into a slot calendar.
+ *
+ * Each month is compiled once into one bitmap per day, with a bit set at the
+ * minute-of-day of every slot start, and cached until the schedule changes.
+ * An appointment may run over several consecutive slots.
+ *
+ * Every edit bumps doctor_profile.schedule_version. Each node polls for
+ * recently edited doctors and drops calendars compiled from an older version,
+ * and {@link #fits} checks the version before a booking is accepted.
+ */
+@Service
+public class DoctorScheduleService {
+
+    // Clinic fixed timings, used until a doctor sets up a schedule
+    private static final List<LocalTime> DEFAULT_SLOTS = List.of(
+            LocalTime.of(9, 0),
+            LocalTime.of(10, 30),
+            LocalTime.of(12, 0),
+            LocalTime.of(15, 0),
+            LocalTime.of(16, 30)
+    );
+
+    private static final int DEFAULT_SLOT_MINUTES = 30;
+    private static final int MIN_SLOT_MINUTES = 5;
+    private static final int MAX_SLOT_MINUTES = 240;
+
+    // past months are dropped once the cache grows beyond this many entries
+    private static final int MAX_MONTHS = 20_000;
+
+    private static final String VERSION_SQL = "select schedule_version from doctor_profile where user_id = ?";
+
+    private static final String BUMP_SQL = "update doctor_profile"
+            + " set schedule_version = schedule_version + 1, schedule_updated_at = ? where id = ?";
+
+    private static final String CHANGED_SQL = "select user_id, schedule_version from doctor_profile"
+            + " where schedule_updated_at > ?";
+
+    // edits are looked at again for this long, covering slow commits and clock skew between nodes
+    private static final long CHANGE_LOOKBACK_MINUTES = 2;
+
+    private final UserRepository userRepository;
+    private final DoctorProfileRepository doctorProfileRepository;
+    private final ScheduleRuleRepository scheduleRuleRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<MonthKey, Month> calendars = new ConcurrentHashMap<>();
+
+    // bumped on every invalidate, lets a compile tell if it may have read old rules
+    private final AtomicLong changes = new AtomicLong();
+
+    public DoctorScheduleService(UserRepository userRepository,
+                                 DoctorProfileRepository doctorProfileRepository,
+                                 ScheduleRuleRepository scheduleRuleRepository,
+                                 JdbcTemplate jdbcTemplate) {
+        this.userRepository = userRepository;
+        this.doctorProfileRepository = doctorProfileRepository;
+        this.scheduleRuleRepository = scheduleRuleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    static LocalTime timeOfMinute(int minute) {
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+
+    // Slot starts for the day as minute-of-day bits; callers must not modify it
+    public BitSet slotsOn(Long doctorId, LocalDate date) {
+        return month(doctorId, YearMonth.from(date)).days()[date.getDayOfMonth() - 1];
+    }
+
+    public int slotMinutes(Long doctorId, LocalDate date) {
+        return month(doctorId, YearMonth.from(date)).slotMinutes();
+    }
+
+    public boolean isSlot(Long doctorId, LocalDate date, LocalTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            return false;
+        }
+        return slotsOn(doctorId, date).get(minuteOfDay(time));
+    }
+
+    /**
+     * True when [time, time + minutes) is covered by back-to-back slots of the
+     * day. Bookings go through here, so the calendar is first checked against
+     * the stored schedule version rather than waiting for the next poll.
+     */
+    public boolean fits(Long doctorId, LocalDate date, LocalTime time, int minutes) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            return false;
+        }
+
+        Month month = month(doctorId, YearMonth.from(date));
+        if (month.version() < storedVersion(doctorId)) {
+            invalidate(doctorId);
+            month = month(doctorId, YearMonth.from(date));
+        }
+
+        BitSet slots = month.days()[date.getDayOfMonth() - 1];
+        int start = minuteOfDay(time);
+        if (!slots.get(start)) {
+            return false;
+        }
+        for (int m = start + month.slotMinutes(); m < start + minutes; m += month.slotMinutes()) {
+            if (!slots.get(m)) {
+                return false;
+            }
+        }
+        return start + minutes <= 24 * 60;
+    }
+
+    public void invalidate(Long doctorId) {
+        changes.incrementAndGet();
+        calendars.keySet().removeIf(k -> k.doctorId().equals(doctorId));
+    }
+
+    // Edits saved on any node; each node drops its own calendars compiled before them
+    @EveryNode
+    @Scheduled(fixedDelayString = "${schedules.refresh-ms:5000}")
+    public void refresh() {
+        Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusMinutes(CHANGE_LOOKBACK_MINUTES));
+        jdbcTemplate.query(CHANGED_SQL, rs -> {
+            long doctorId = rs.getLong("user_id");
+            long version = rs.getLong("schedule_version");
+            if (calendars.entrySet().stream().anyMatch(e ->
+                    e.getKey().doctorId() == doctorId && e.getValue().version() < version)) {
+                invalidate(doctorId);
+            }
+        }, since);
+    }
+
+    private long storedVersion(Long doctorId) {
+        List<Long> versions = jdbcTemplate.queryForList(VERSION_SQL, Long.class, doctorId);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    // 🔹 GET SCHEDULE
+    @Transactional(readOnly = true)
+    public DoctorScheduleResponse getMySchedule(String email) {
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return doctorProfileRepository.findByUser(user)
+                .map(p -> new DoctorScheduleResponse(p.getSlotMinutes(), List.copyOf(p.getScheduleRules())))
+                .orElseGet(() -> new DoctorScheduleResponse(null, List.of()));
+    }
+
+    // 🔹 REPLACE SCHEDULE
+    @Transactional
+    public DoctorScheduleResponse updateMySchedule(String email, DoctorScheduleRequest request) {
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Integer slotMinutes = request.getSlotMinutes();
+        if (slotMinutes != null
+                && (slotMinutes < MIN_SLOT_MINUTES || slotMinutes > MAX_SLOT_MINUTES)) {
+            throw new RuntimeException("Slot length must be between "
+                    + MIN_SLOT_MINUTES + " and " + MAX_SLOT_MINUTES + " minutes");
+        }
+
+        List<ScheduleRuleRequest> rules = request.getRules() != null ? request.getRules() : List.of();
+        rules.forEach(this::validate);
+
+        DoctorProfile profile = doctorProfileRepository
+                .findByUser(user)
+                .orElseGet(() -> {
+                    DoctorProfile p = new DoctorProfile();
+                    p.setUser(user);
+                    return p;
+                });
+
+        profile.setSlotMinutes(slotMinutes);
+        profile.getScheduleRules().clear();
+        for (ScheduleRuleRequest r : rules) {
+            ScheduleRule rule = new ScheduleRule();
+            rule.setDoctorProfile(profile);
+            rule.setType(r.getType());
+            rule.setDayOfWeek(r.getDayOfWeek());
+            rule.setOverrideDate(r.getOverrideDate());
+            rule.setStartTime(r.getStartTime());
+            rule.setEndTime(r.getEndTime());
+            profile.getScheduleRules().add(rule);
+        }
+
+        DoctorProfile saved = doctorProfileRepository.saveAndFlush(profile);
+
+        // not mapped on the entity, so the increment is atomic whoever saves the profile
+        jdbcTemplate.update(BUMP_SQL, Timestamp.valueOf(LocalDateTime.now()), saved.getId());
+
+        // a reader before the commit would only cache the old rules again; other nodes pick it up in refresh
+        Long doctorId = user.getId();
+        PersistenceSupport.afterCommit(() -> invalidate(doctorId));
+
+        return new DoctorScheduleResponse(saved.getSlotMinutes(), List.copyOf(saved.getScheduleRules()));
+    }
+
+    private void validate(ScheduleRuleRequest rule) {
+
+        if (rule.getType() == null) {
+            throw new RuntimeException("Schedule rule type is required");
+        }
+
+        if (rule.getType() == ScheduleRuleType.DAY_OFF) {
+            if (rule.getOverrideDate() == null) {
+                throw new RuntimeException("A day off needs a date");
+            }
+            return;
+        }
+
+        if (rule.getStartTime() == null || rule.getEndTime() == null
+                || !rule.getStartTime().isBefore(rule.getEndTime())) {
+            throw new RuntimeException("Schedule rule needs a start time before its end time");
+        }
+
+        if (rule.getType() == ScheduleRuleType.HOURS
+                && rule.getDayOfWeek() == null && rule.getOverrideDate() == null) {
+            throw new RuntimeException("Working hours need a day of week or a date");
+        }
+    }
+
+    private Month month(Long doctorId, YearMonth month) {
+        MonthKey key = new MonthKey(doctorId, month);
+        Month compiled = calendars.get(key);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        if (calendars.size() > MAX_MONTHS) {
+            YearMonth current = YearMonth.now();
+            calendars.keySet().removeIf(k -> k.month().isBefore(current));
+        }
+
+        long stamp = changes.get();
+        compiled = calendars.computeIfAbsent(key, this::compile);
+
+        // an edit committed while this compiled may be missing from it; reload next time
+        if (changes.get() != stamp) {
+            calendars.remove(key, compiled);
+        }
+        return compiled;
+    }
+
+    private Month compile(MonthKey key) {
+
+        // read before the rules: an edit in between leaves the month looking older, never newer
+        long version = storedVersion(key.doctorId());
+
+        List<ScheduleRule> rules = scheduleRuleRepository.findByDoctorProfileUserId(key.doctorId());
+        int slotMinutes = doctorProfileRepository.findByUserId(key.doctorId())
+                .map(DoctorProfile::getSlotMinutes)
+                .orElse(DEFAULT_SLOT_MINUTES);
+
+        BitSet[] days = new BitSet[key.month().lengthOfMonth()];
+        for (int d = 0; d < days.length; d++) {
+            LocalDate date = key.month().atDay(d + 1);
+            days[d] = rules.isEmpty() ? defaultDay() : compileDay(rules, date, slotMinutes);
+        }
+        return new Month(days, rules.isEmpty() ? DEFAULT_SLOT_MINUTES : slotMinutes, version);
+    }
+
+    private BitSet defaultDay() {
+        BitSet bits = new BitSet();
+        for (LocalTime time : DEFAULT_SLOTS) {
+            bits.set(minuteOfDay(time));
+        }
+        return bits;
+    }
+
+    private BitSet compileDay(List<ScheduleRule> rules, LocalDate date, int slotMinutes) {
+
+        boolean overridden = rules.stream().anyMatch(r -> date.equals(r.getOverrideDate()));
+
+        List<ScheduleRule> hours = new ArrayList<>();
+        List<ScheduleRule> breaks = new ArrayList<>();
+
+        for (ScheduleRule rule : rules) {
+            boolean applies = overridden
+                    ? date.equals(rule.getOverrideDate())
+                    : rule.getOverrideDate() == null && date.getDayOfWeek() == rule.getDayOfWeek();
+
+            if (rule.getType() == ScheduleRuleType.DAY_OFF && applies) {
+                return new BitSet();
+            } else if (rule.getType() == ScheduleRuleType.HOURS && applies) {
+                hours.add(rule);
+            } else if (rule.getType() == ScheduleRuleType.BREAK && (applies || isDaily(rule))) {
+                // daily breaks still apply on override days
+                breaks.add(rule);
+            }
+        }
+
+        BitSet bits = new BitSet();
+        for (ScheduleRule window : hours) {
+            int end = minuteOfDay(window.getEndTime());
+            for (int start = minuteOfDay(window.getStartTime()); start + slotMinutes <= end; start += slotMinutes) {
+                if (!overlapsBreak(breaks, start, start + slotMinutes)) {
+                    bits.set(start);
+                }
+            }
+        }
+        return bits;
+    }
+
+    private boolean isDaily(ScheduleRule rule) {
+        return rule.getDayOfWeek() == null && rule.getOverrideDate() == null;
+    }
+
+    private boolean overlapsBreak(List<ScheduleRule> breaks, int start, int end) {
+        for (ScheduleRule b : breaks) {
+            if (start < minuteOfDay(b.getEndTime()) && minuteOfDay(b.getStartTime()) < end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record MonthKey(Long doctorId, YearMonth month) {
+    }
+
+    private record Month(BitSet[] days, int slotMinutes, long version) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code @Scheduled} method that runs on every node rather than
+ * once cluster-wide: it looks after node-local state, or coordinates with
+ * the other nodes itself.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EveryNode {
+}
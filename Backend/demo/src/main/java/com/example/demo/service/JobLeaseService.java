@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import java.net.InetAddress;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Named leases in scheduler_lease, so a job runs on one node at a time.
+ *
+ * A lease is taken when it is free, already ours, or expired (stolen from a
+ * node that died), and renewed in the background while the work runs. All
+ * times come from the database clock. On release the lease is kept until
+ * at least min-hold after it was taken, so a node whose cron fires a moment
+ * later doesn't repeat work that has just finished.
+ *
+ * Scheduled jobs in this package are wrapped automatically, see
+ * {@link EveryNode} for the ones that must not be.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseService.class);
+
+    // taken if free, ours, or expired
+    private static final String ACQUIRE_SQL = "update scheduler_lease"
+            + " set owner = ?, acquired_at = now(6), expires_at = now(6) + interval ? microsecond"
+            + " where name = ? and (owner = ? or owner is null or expires_at <= now(6))";
+
+    private static final String CREATE_SQL = "insert ignore into scheduler_lease (name, owner, acquired_at, expires_at)"
+            + " values (?, null, now(6), now(6))";
+
+    private static final String RENEW_SQL = "update scheduler_lease"
+            + " set expires_at = now(6) + interval ? microsecond where name = ? and owner = ?";
+
+    // holds on until min-hold past the acquire, then anyone may take it
+    private static final String RELEASE_SQL = "update scheduler_lease"
+            + " set expires_at = greatest(now(6), acquired_at + interval ? microsecond)"
+            + " where name = ? and owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final long ttlMillis;
+    private final long minHoldMillis;
+
+    private final String owner;
+
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "job-lease-renewer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public JobLeaseService(JdbcTemplate jdbcTemplate,
+                           @Value("${scheduling.lease.ttl-ms:60000}") long ttlMillis,
+                           @Value("${scheduling.lease.min-hold-ms:30000}") long minHoldMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = Math.max(3000, ttlMillis);
+        this.minHoldMillis = Math.max(0, minHoldMillis);
+        this.owner = nodeName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    // The lease, held and renewing until closed, or null when another node has it
+    public Lease acquire(String name) {
+        if (!tryAcquire(name)) {
+            return null;
+        }
+        return new Lease(name);
+    }
+
+    // Runs the task unless another node holds the lease; true if it ran here
+    public boolean runExclusive(String name, Runnable task) {
+        try (Lease lease = acquire(name)) {
+            if (lease == null) {
+                return false;
+            }
+            task.run();
+            return true;
+        }
+    }
+
+    /**
+     * Splits a job into shards, each under its own lease. Every node walks
+     * all of them from its own starting point and works on the ones nobody
+     * else holds, so the shards spread over whoever is up.
+     *
+     * @return the number of shards run on this node
+     */
+    public int runShards(String job, int shards, IntConsumer task) {
+        int start = Math.floorMod(owner.hashCode(), shards);
+        int ran = 0;
+        for (int i = 0; i < shards; i++) {
+            int shard = (start + i) % shards;
+            if (runExclusive(job + "#" + shard, () -> task.accept(shard))) {
+                ran++;
+            }
+        }
+        return ran;
+    }
+
+    private boolean tryAcquire(String name) {
+        long ttlMicros = ttlMillis * 1000;
+        if (jdbcTemplate.update(ACQUIRE_SQL, owner, ttlMicros, name, owner) == 1) {
+            return true;
+        }
+        // first use of this name
+        if (jdbcTemplate.update(CREATE_SQL, name) == 1) {
+            return jdbcTemplate.update(ACQUIRE_SQL, owner, ttlMicros, name, owner) == 1;
+        }
+        return false;
+    }
+
+    // A held lease; closing it stops the renewals and lets it go after min-hold
+    public final class Lease implements AutoCloseable {
+
+        private final String name;
+        private final ScheduledFuture<?> renewal;
+
+        private Lease(String name) {
+            this.name = name;
+            long every = ttlMillis / 3;
+            this.renewal = renewer.scheduleAtFixedRate(this::renew, every, every, TimeUnit.MILLISECONDS);
+        }
+
+        private void renew() {
+            try {
+                if (jdbcTemplate.update(RENEW_SQL, ttlMillis * 1000, name, owner) == 0) {
+                    // only after we stalled past the ttl; the other node's run may overlap ours
+                    logger.warn("Lost lease {} while still running", name);
+                    renewal.cancel(false);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to renew lease {}", name, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            renewal.cancel(false);
+            try {
+                jdbcTemplate.update(RELEASE_SQL, minHoldMillis * 1000, name, owner);
+            } catch (Exception e) {
+                // it expires on its own after the ttl
+                logger.error("Failed to release lease {}", name, e);
+            }
+        }
+    }
+
+    private static String nodeName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
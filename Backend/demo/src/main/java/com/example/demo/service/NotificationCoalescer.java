@@ -0,0 +1,162 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.NotificationAudience;
+import com.example.demo.entity.NotificationTemplate;
+
+/**
+ * Merges bursts of the same notification to one recipient into a digest,
+ * e.g. a doctor's new appointment requests into "5 new appointment requests".
+ *
+ * Receipts of a template with a {@link NotificationTemplate#digest()} are
+ * parked in notification_pending, in the caller's transaction, instead of
+ * being published. A (recipient, template) group is flushed once its oldest
+ * row is a window old or it reaches max-size; a group of one goes out as the
+ * original event. {@link NotificationService#publish} flushes a recipient's
+ * parked rows before anything newer, so a recipient never sees notifications
+ * out of order; for the same reason nothing is parked for a recipient who also
+ * gets a direct notification in the same batch.
+ */
+@Component
+public class NotificationCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationCoalescer.class);
+
+    private static final String HOLD_SQL = "insert into notification_pending"
+            + " (recipient_id, audience, template, params, sender_id, appointment_id, created_at)"
+            + " values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DUE_SQL = "select recipient_id, template, audience from notification_pending"
+            + " group by recipient_id, template, audience"
+            + " having min(created_at) <= ? or count(*) >= ? limit ?";
+
+    private static final int GROUPS_PER_POLL = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxSize;
+
+    public NotificationCoalescer(JdbcTemplate jdbcTemplate,
+                                 NotificationService notificationService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${notifications.coalesce.enabled:true}") boolean enabled,
+                                 @Value("${notifications.coalesce.window-ms:60000}") long windowMillis,
+                                 @Value("${notifications.coalesce.max-size:20}") int maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.windowMillis = Math.max(0, windowMillis);
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Parks the receipts that coalesce and returns the rest of the events to
+     * publish now. Must run inside the caller's transaction.
+     */
+    public List<NotificationService.Event> hold(List<NotificationService.Event> events) {
+
+        if (!enabled || events.isEmpty()) {
+            return events;
+        }
+
+        // publishing to these flushes their parked rows, so theirs would go out of order if parked now
+        Set<Long> direct = new HashSet<>();
+        for (NotificationService.Event event : events) {
+            NotificationTemplate digest = event.template().digest();
+            for (NotificationService.Recipient r : event.recipients()) {
+                if (digest == null || !digest.reaches(r.audience())) {
+                    direct.add(r.userId());
+                }
+            }
+        }
+
+        List<NotificationService.Event> now = new ArrayList<>(events.size());
+        List<Pending> held = new ArrayList<>();
+
+        for (NotificationService.Event event : events) {
+            NotificationTemplate digest = event.template().digest();
+
+            List<NotificationService.Recipient> kept = new ArrayList<>(event.recipients().size());
+            for (NotificationService.Recipient r : event.recipients()) {
+                if (digest != null && digest.reaches(r.audience()) && !direct.contains(r.userId())) {
+                    held.add(new Pending(r.userId(), r.audience(), event.template(), event.params(),
+                            event.senderId(), event.appointmentId()));
+                } else {
+                    kept.add(r);
+                }
+            }
+            if (!kept.isEmpty()) {
+                now.add(kept.size() == event.recipients().size() ? event : new NotificationService.Event(
+                        event.template(), event.params(), event.senderId(), event.appointmentId(), kept));
+            }
+        }
+
+        if (!held.isEmpty()) {
+            Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(HOLD_SQL, held, held.size(), (ps, p) -> {
+                ps.setLong(1, p.recipientId());
+                ps.setString(2, p.audience().name());
+                ps.setString(3, p.template().name());
+                ps.setString(4, p.params());
+                ps.setObject(5, p.senderId());
+                ps.setObject(6, p.appointmentId());
+                ps.setTimestamp(7, createdAt);
+            });
+        }
+        return now;
+    }
+
+    // Every node polls; SKIP LOCKED keeps them off each other's groups
+    @EveryNode
+    @Scheduled(fixedDelayString = "${notifications.coalesce.poll-ms:5000}")
+    public void flush() {
+        Timestamp windowStart = Timestamp.valueOf(LocalDateTime.now().minus(Duration.ofMillis(windowMillis)));
+        List<Group> due = jdbcTemplate.query(DUE_SQL, (rs, i) -> new Group(
+                rs.getLong("recipient_id"),
+                NotificationTemplate.valueOf(rs.getString("template")),
+                NotificationAudience.valueOf(rs.getString("audience"))
+        ), windowStart, maxSize, GROUPS_PER_POLL);
+
+        for (Group group : due) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> notificationService.publishPending(
+                        group.recipientId(), group.template(), group.audience()));
+            } catch (Exception e) {
+                // its parked rows stay put and are retried on the next poll; the other groups go on
+                logger.error("Failed to flush coalesced notifications for recipient {}", group.recipientId(), e);
+            }
+        }
+    }
+
+    private record Group(Long recipientId, NotificationTemplate template, NotificationAudience audience) {
+    }
+
+    private record Pending(Long recipientId,
+                           NotificationAudience audience,
+                           NotificationTemplate template,
+                           String params,
+                           Long senderId,
+                           Long appointmentId) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.AppointmentStatus;
+import com.example.demo.entity.Appointment;
+
+/**
+ * Records appointment changes that users should hear about.
+ *
+ * Callers append in the same transaction as the change itself, one small row
+ * per change; {@link NotificationOutboxDispatcher} turns the rows into
+ * notifications later, off the request thread.
+ */
+@Service
+public class NotificationOutbox {
+
+    public enum EventType { BOOKED, RESCHEDULED, STATUS_CHANGED }
+
+    private static final String INSERT_SQL = "insert into notification_outbox"
+            + " (event_type, appointment_id, doctor_id, patient_id, appointment_date, appointment_time, status, created_at)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationOutbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // The appointment as it was when the change happened
+    public record Event(EventType type,
+                       Long appointmentId,
+                       Long doctorId,
+                       Long patientId,
+                       LocalDate date,
+                       LocalTime time,
+                       AppointmentStatus status) {
+
+        public static Event of(EventType type, Appointment appointment) {
+            return new Event(type, appointment.getId(), appointment.getDoctor().getId(),
+                    appointment.getPatient().getId(), appointment.getAppointmentDate(),
+                    appointment.getAppointmentTime(), appointment.getStatus());
+        }
+    }
+
+    public void append(Event event) {
+        append(List.of(event));
+    }
+
+    public void append(List<Event> events) {
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, BATCH_SIZE, (ps, e) -> {
+            ps.setString(1, e.type().name());
+            ps.setLong(2, e.appointmentId());
+            ps.setLong(3, e.doctorId());
+            ps.setLong(4, e.patientId());
+            ps.setDate(5, Date.valueOf(e.date()));
+            ps.setTime(6, Time.valueOf(e.time()));
+            ps.setString(7, e.status().name());
+            ps.setTimestamp(8, now);
+        });
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.AppointmentStatus;
+import com.example.demo.entity.NotificationTemplate;
+import com.example.demo.service.NotificationOutbox.EventType;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Turns outbox rows into notification events for the patient and doctor.
+ *
+ * Each chunk is claimed with SKIP LOCKED, turned into one batched insert and
+ * deleted in the same transaction, so several instances can drain together
+ * and a row is delivered once.
+ */
+@Component
+public class NotificationOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxDispatcher.class);
+
+    private static final String CLAIM_SQL = "select id, event_type, appointment_id, doctor_id, patient_id,"
+            + " appointment_date, appointment_time, status from notification_outbox"
+            + " order by id limit ? for update skip locked";
+
+    private static final String NAMES_SQL = "select id, name from users where id in (%s)";
+
+    private static final String DELETE_SQL = "delete from notification_outbox where id in (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationService notificationService;
+    private final NotificationCoalescer notificationCoalescer;
+    private final AppointmentReminderScheduler appointmentReminderScheduler;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    public NotificationOutboxDispatcher(JdbcTemplate jdbcTemplate,
+                                        NotificationService notificationService,
+                                        NotificationCoalescer notificationCoalescer,
+                                        AppointmentReminderScheduler appointmentReminderScheduler,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${notifications.outbox.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationService = notificationService;
+        this.notificationCoalescer = notificationCoalescer;
+        this.appointmentReminderScheduler = appointmentReminderScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    // SKIP LOCKED already lets every node drain side by side
+    @EveryNode
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-ms:1000}")
+    public void dispatch() {
+        try {
+            drain();
+        } catch (Exception e) {
+            // rows stay in the outbox and are retried on the next poll
+            logger.error("Failed to dispatch notification outbox", e);
+        }
+    }
+
+    // Deliver whatever is still queued before the datasource goes away
+    @PreDestroy
+    public void shutdown() {
+        dispatch();
+    }
+
+    private void drain() {
+        Integer claimed;
+        do {
+            claimed = transactionTemplate.execute(tx -> dispatchChunk());
+        } while (claimed != null && claimed == chunkSize);
+    }
+
+    private int dispatchChunk() {
+
+        List<Row> rows = jdbcTemplate.query(CLAIM_SQL, (rs, i) -> new Row(
+                rs.getLong("id"),
+                EventType.valueOf(rs.getString("event_type")),
+                rs.getLong("appointment_id"),
+                rs.getLong("doctor_id"),
+                rs.getLong("patient_id"),
+                rs.getObject("appointment_date", LocalDate.class),
+                rs.getObject("appointment_time", LocalTime.class),
+                AppointmentStatus.valueOf(rs.getString("status"))
+        ), chunkSize);
+
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, String> names = names(rows);
+
+        List<NotificationService.Event> events = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            NotificationService.Event event = toEvent(row, names.get(row.doctorId()), names.get(row.patientId()));
+            if (event != null) {
+                events.add(event);
+            }
+            ids.add(row.id());
+
+            // approvals and moves of approved appointments (re)arm their reminders
+            if (row.status() == AppointmentStatus.APPROVED && row.type() != EventType.BOOKED) {
+                appointmentReminderScheduler.approved(row.appointmentId(), row.date(), row.time());
+            }
+        }
+
+        notificationService.publish(notificationCoalescer.hold(events));
+        jdbcTemplate.update(String.format(DELETE_SQL, PersistenceSupport.placeholders(ids.size())), ids.toArray());
+
+        return rows.size();
+    }
+
+    private Map<Long, String> names(List<Row> rows) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Row row : rows) {
+            userIds.add(row.doctorId());
+            userIds.add(row.patientId());
+        }
+
+        Map<Long, String> names = new HashMap<>();
+        jdbcTemplate.query(String.format(NAMES_SQL, PersistenceSupport.placeholders(userIds.size())),
+                rs -> {
+                    names.put(rs.getLong("id"), rs.getString("name"));
+                },
+                userIds.toArray());
+        return names;
+    }
+
+    private static NotificationService.Event toEvent(Row row, String doctorName, String patientName) {
+        NotificationTemplate template = switch (row.type()) {
+            case BOOKED -> NotificationTemplate.APPOINTMENT_BOOKED;
+            case RESCHEDULED -> NotificationTemplate.APPOINTMENT_RESCHEDULED;
+            case STATUS_CHANGED -> statusTemplate(row.status());
+        };
+        if (template == null) {
+            return null;
+        }
+        return NotificationService.Event.forAppointment(template, row.appointmentId(), row.doctorId(),
+                row.patientId(), doctorName, patientName, row.date(), row.time());
+    }
+
+    // Template for a status change, null when none is sent
+    private static NotificationTemplate statusTemplate(AppointmentStatus status) {
+        return switch (status) {
+            case CANCELLED -> NotificationTemplate.APPOINTMENT_CANCELLED;
+            case APPROVED -> NotificationTemplate.APPOINTMENT_APPROVED;
+            case REJECTED -> NotificationTemplate.APPOINTMENT_REJECTED;
+            default -> null;
+        };
+    }
+
+    private record Row(Long id,
+                       EventType type,
+                       Long appointmentId,
+                       Long doctorId,
+                       Long patientId,
+                       LocalDate date,
+                       LocalTime time,
+                       AppointmentStatus status) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Enforces notification retention: read notifications older than
+ * read-after-days are deleted, and each recipient keeps at most
+ * max-per-user notifications. Either policy is off when set to 0.
+ *
+ * Receipts go in small id-keyed chunks, each its own autocommitted DELETE
+ * followed by one for the events left without receipts, with a pause in
+ * between so the purge never holds locks for long or crowds out request
+ * traffic. The work is split into shards by id, which the nodes of a
+ * cluster share out through {@link JobLeaseService}.
+ */
+@Component
+public class NotificationPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationPurger.class);
+
+    // front of idx_notification_read_created, so this stops at the limit
+    private static final String EXPIRED_SQL = "select id from notification"
+            + " where read_status = true and created_at < ? and mod(id, ?) = ? limit ?";
+
+    private static final String OLDEST_READ_SQL = "select min(created_at) from notification where read_status = true";
+
+    private static final String OVER_CAP_SQL = "select recipient_id from notification"
+            + " where recipient_id > ? and mod(recipient_id, ?) = ?"
+            + " group by recipient_id having count(*) > ?"
+            + " order by recipient_id limit ?";
+
+    // the oldest row a recipient keeps, everything before it goes
+    private static final String KEEP_FROM_SQL = "select created_at, id from notification"
+            + " where recipient_id = ? order by created_at desc, id desc limit 1 offset ?";
+
+    private static final String OVERFLOW_SQL = "select id from notification"
+            + " where recipient_id = ? and (created_at < ? or (created_at = ? and id < ?)) limit ?";
+
+    private static final String EVENTS_OF_SQL = "select distinct event_id from notification where id in (%s)";
+
+    private static final String DELETE_SQL = "delete from notification where id in (%s)";
+
+    // events whose last receipt just went; a broadcast keeps its event as its record
+    private static final String ORPHANS_SQL = "delete from notification_event where id in (%s)"
+            + " and not exists (select 1 from notification n where n.event_id = notification_event.id)"
+            + " and not exists (select 1 from broadcast b where b.event_id = notification_event.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UnreadNotificationCounter unreadNotificationCounter;
+    private final JobLeaseService jobLeaseService;
+
+    private final int readAfterDays;
+    private final int maxPerUser;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final int shards;
+
+    private final Counter expiredPurged;
+    private final Counter overflowPurged;
+
+    // seconds the oldest read notification is past its retention, 0 when caught up
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public NotificationPurger(JdbcTemplate jdbcTemplate,
+                              UnreadNotificationCounter unreadNotificationCounter,
+                              JobLeaseService jobLeaseService,
+                              MeterRegistry meterRegistry,
+                              @Value("${notifications.retention.read-after-days:180}") int readAfterDays,
+                              @Value("${notifications.retention.max-per-user:0}") int maxPerUser,
+                              @Value("${notifications.retention.chunk-size:500}") int chunkSize,
+                              @Value("${notifications.retention.pause-ms:200}") long pauseMillis,
+                              @Value("${notifications.retention.shards:4}") int shards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.unreadNotificationCounter = unreadNotificationCounter;
+        this.jobLeaseService = jobLeaseService;
+        this.readAfterDays = readAfterDays;
+        this.maxPerUser = maxPerUser;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMillis = Math.max(0, pauseMillis);
+        this.shards = Math.max(1, shards);
+
+        this.expiredPurged = Counter.builder("notifications.purge.rows")
+                .description("Notifications deleted by the retention purge")
+                .tag("policy", "read-after-days")
+                .register(meterRegistry);
+        this.overflowPurged = Counter.builder("notifications.purge.rows")
+                .description("Notifications deleted by the retention purge")
+                .tag("policy", "max-per-user")
+                .register(meterRegistry);
+        meterRegistry.gauge("notifications.purge.lag.seconds", lagSeconds);
+    }
+
+    // every node joins in and takes whichever shards are free
+    @EveryNode
+    @Scheduled(cron = "${notifications.retention.cron:0 0 4 * * *}")
+    public void run() {
+        try {
+            jobLeaseService.runShards("NotificationPurger.run", shards, this::purge);
+        } finally {
+            updateLag();
+        }
+    }
+
+    private void purge(int shard) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        try {
+            if (readAfterDays > 0) {
+                purgeExpired(shard);
+            }
+            if (maxPerUser > 0) {
+                purgeOverflow(shard);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.info("Notification purge interrupted, the rest goes on the next run");
+        }
+    }
+
+    private void purgeExpired(int shard) throws InterruptedException {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(readAfterDays);
+        long total = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(EXPIRED_SQL, Long.class, Timestamp.valueOf(cutoff), shards, shard, chunkSize);
+            total += delete(ids);
+            expiredPurged.increment(ids.size());
+        } while (ids.size() == chunkSize && pause());
+
+        if (total > 0) {
+            logger.info("Purged {} read notifications created before {}", total, cutoff);
+        }
+    }
+
+    private void purgeOverflow(int shard) throws InterruptedException {
+        long total = 0;
+        long afterRecipient = 0;
+        List<Long> recipients;
+        do {
+            recipients = jdbcTemplate.queryForList(OVER_CAP_SQL, Long.class,
+                    afterRecipient, shards, shard, maxPerUser, chunkSize);
+            for (Long recipientId : recipients) {
+                total += trim(recipientId);
+                afterRecipient = recipientId;
+            }
+        } while (recipients.size() == chunkSize);
+
+        if (total > 0) {
+            logger.info("Purged {} notifications over the {} per user cap", total, maxPerUser);
+        }
+    }
+
+    private long trim(Long recipientId) throws InterruptedException {
+        List<Map<String, Object>> keep = jdbcTemplate.queryForList(KEEP_FROM_SQL, recipientId, maxPerUser - 1);
+        if (keep.isEmpty()) {
+            return 0;
+        }
+        Object createdAt = keep.get(0).get("created_at");
+        Object id = keep.get(0).get("id");
+
+        long total = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(OVERFLOW_SQL, Long.class, recipientId, createdAt, createdAt, id, chunkSize);
+            total += delete(ids);
+            overflowPurged.increment(ids.size());
+        } while (ids.size() == chunkSize && pause());
+
+        // some of those may have been unread
+        if (total > 0) {
+            unreadNotificationCounter.forget(recipientId);
+        }
+        return total;
+    }
+
+    private int delete(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String in = PersistenceSupport.placeholders(ids.size());
+        List<Long> eventIds = jdbcTemplate.queryForList(String.format(EVENTS_OF_SQL, in), Long.class, ids.toArray());
+
+        int deleted = jdbcTemplate.update(String.format(DELETE_SQL, in), ids.toArray());
+        jdbcTemplate.update(String.format(ORPHANS_SQL, PersistenceSupport.placeholders(eventIds.size())), eventIds.toArray());
+        return deleted;
+    }
+
+    // Gives other writers a turn between chunks; always true so it can sit in a loop condition
+    private boolean pause() throws InterruptedException {
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+        return true;
+    }
+
+    private void updateLag() {
+        if (readAfterDays <= 0) {
+            lagSeconds.set(0);
+            return;
+        }
+        try {
+            Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_READ_SQL, Timestamp.class);
+            LocalDateTime due = oldest == null ? null : oldest.toLocalDateTime().plusDays(readAfterDays);
+            lagSeconds.set(due == null ? 0 : Math.max(0, Duration.between(due, LocalDateTime.now()).toSeconds()));
+        } catch (Exception e) {
+            logger.error("Failed to measure notification purge lag", e);
+        }
+    }
+}
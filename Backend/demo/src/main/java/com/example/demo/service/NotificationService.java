@@ -1,12 +1,34 @@
 package com.example.demo.service;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.example.demo.entity.Appointment;
+import com.example.demo.dto.NotificationPage;
+import com.example.demo.dto.NotificationView;
 import com.example.demo.entity.Notification;
+import com.example.demo.entity.NotificationAudience;
+import com.example.demo.entity.NotificationTemplate;
 import com.example.demo.entity.User;
 import com.example.demo.repository.NotificationRepository;
 import com.example.demo.repository.UserRepository;
@@ -14,59 +36,375 @@ import com.example.demo.repository.UserRepository;
 @Service
 public class NotificationService {
 
+    private static final String EVENT_SQL = "insert into notification_event"
+            + " (template, params, sender_id, appointment_id, created_at) values (?, ?, ?, ?, ?)";
+
+    private static final String RECEIPT_SQL = "insert into notification"
+            + " (event_id, recipient_id, audience, read_status, created_at) values (?, ?, ?, false, ?)";
+
+    private static final String PENDING_COLUMNS = "select id, recipient_id, audience, template, params,"
+            + " sender_id, appointment_id from notification_pending";
+
+    private static final String CLAIM_GROUP_SQL = PENDING_COLUMNS
+            + " where recipient_id = ? and template = ? and audience = ? order by id for update skip locked";
+
+    // Waits for a flush holding these rows, so nothing newer is published ahead of them
+    private static final String CLAIM_RECIPIENTS_SQL = PENDING_COLUMNS
+            + " where recipient_id in (%s) order by id for update";
+
+    private static final String DELETE_PENDING_SQL = "delete from notification_pending where id in (%s)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final UnreadNotificationCounter unreadNotificationCounter;
+    private final NotificationStreamService notificationStreamService;
 
     public NotificationService(NotificationRepository notificationRepository,
-                               UserRepository userRepository) {
+                               UserRepository userRepository,
+                               JdbcTemplate jdbcTemplate,
+                               UnreadNotificationCounter unreadNotificationCounter,
+                               NotificationStreamService notificationStreamService) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.unreadNotificationCounter = unreadNotificationCounter;
+        this.notificationStreamService = notificationStreamService;
     }
 
-    public Notification createNotification(User recipient,
-                                           User sender,
-                                           String type,
-                                           String message,
-                                           Appointment appointment) {
-        Notification n = new Notification();
-        n.setRecipient(recipient);
-        n.setSender(sender);
-        n.setType(type);
-        n.setMessage(message);
-        n.setAppointment(appointment);
-        n.setReadStatus(false);
-        n.setCreatedAt(LocalDateTime.now());
+    /**
+     * One event and the users who get a receipt for it. The text is not
+     * stored; it is rendered from the template and params on read.
+     */
+    public record Event(NotificationTemplate template,
+                        String params,
+                        Long senderId,
+                        Long appointmentId,
+                        List<Recipient> recipients) {
 
-        return notificationRepository.save(n);
+        // For the appointment's patient and doctor, whichever of them the template reaches
+        public static Event forAppointment(NotificationTemplate template,
+                                           Long appointmentId,
+                                           Long doctorId,
+                                           Long patientId,
+                                           String doctorName,
+                                           String patientName,
+                                           LocalDate date,
+                                           LocalTime time) {
+            List<Recipient> recipients = new ArrayList<>(2);
+            if (template.reaches(NotificationAudience.PATIENT)) {
+                recipients.add(new Recipient(patientId, NotificationAudience.PATIENT));
+            }
+            if (template.reaches(NotificationAudience.DOCTOR)) {
+                recipients.add(new Recipient(doctorId, NotificationAudience.DOCTOR));
+            }
+            return new Event(template, NotificationTemplate.params(doctorName, patientName, date, time),
+                    doctorId, appointmentId, recipients);
+        }
     }
 
-    public void markAllAsRead(String email) {
+    public record Recipient(Long userId, NotificationAudience audience) {
+    }
 
-    User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * JDBC batch inserts: the events first for their ids, then one slim
+     * receipt per recipient. Whatever the coalescer has parked for these
+     * recipients is published first, so a digest never lands after newer
+     * notifications.
+     */
+    @Transactional
+    public void publish(List<Event> events) {
 
-    List<Notification> list =
-            notificationRepository.findByRecipientOrderByCreatedAtDesc(user);
+        if (events.isEmpty()) {
+            return;
+        }
 
-    for (Notification n : list) {
-        n.setReadStatus(true);
+        Set<Long> recipientIds = new LinkedHashSet<>();
+        for (Event e : events) {
+            for (Recipient r : e.recipients()) {
+                recipientIds.add(r.userId());
+            }
+        }
+
+        List<Event> all = releasePending(recipientIds);
+        all.addAll(events);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        insertReceipts(receipts(all, now), now);
+    }
+
+    // Inserts the events and returns their receipts, not yet written
+    private List<Receipt> receipts(List<Event> events, Timestamp now) {
+
+        List<Receipt> receipts = new ArrayList<>();
+        if (events.isEmpty()) {
+            return receipts;
+        }
+
+        long[] eventIds = insertEvents(events, now);
+        for (int i = 0; i < events.size(); i++) {
+            for (Recipient r : events.get(i).recipients()) {
+                receipts.add(new Receipt(eventIds[i], r));
+            }
+        }
+        return receipts;
+    }
+
+    private void insertReceipts(List<Receipt> receipts, Timestamp now) {
+
+        Map<Long, Integer> perRecipient = new HashMap<>();
+        for (Receipt r : receipts) {
+            perRecipient.merge(r.recipient().userId(), 1, Integer::sum);
+        }
+
+        jdbcTemplate.batchUpdate(RECEIPT_SQL, receipts, BATCH_SIZE, (ps, r) -> {
+            ps.setLong(1, r.eventId());
+            ps.setLong(2, r.recipient().userId());
+            ps.setString(3, r.recipient().audience().name());
+            ps.setTimestamp(4, now);
+        });
+
+        unreadNotificationCounter.added(perRecipient);
+        notificationStreamService.published(perRecipient.keySet());
+    }
+
+    private record Receipt(long eventId, Recipient recipient) {
+    }
+
+    // Publishes one parked (recipient, template) group, as a digest when there are several
+    @Transactional
+    public void publishPending(Long recipientId, NotificationTemplate template, NotificationAudience audience) {
+        publish(toEvents(claimPending(CLAIM_GROUP_SQL,
+                new Object[] { recipientId, template.name(), audience.name() })));
+    }
+
+    // What is parked for these recipients, as events to publish ahead of anything newer
+    private List<Event> releasePending(Collection<Long> recipientIds) {
+        if (recipientIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return toEvents(claimPending(String.format(CLAIM_RECIPIENTS_SQL, PersistenceSupport.placeholders(recipientIds.size())),
+                recipientIds.toArray()));
+    }
+
+    // Locks and removes parked rows; they are published in the same transaction
+    private List<Pending> claimPending(String sql, Object[] args) {
+        List<Pending> rows = jdbcTemplate.query(sql, (rs, i) -> new Pending(
+                rs.getLong("id"),
+                rs.getLong("recipient_id"),
+                NotificationAudience.valueOf(rs.getString("audience")),
+                NotificationTemplate.valueOf(rs.getString("template")),
+                rs.getString("params"),
+                rs.getObject("sender_id", Long.class),
+                rs.getObject("appointment_id", Long.class)
+        ), args);
+
+        if (!rows.isEmpty()) {
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (Pending p : rows) {
+                ids.add(p.id());
+            }
+            jdbcTemplate.update(String.format(DELETE_PENDING_SQL, PersistenceSupport.placeholders(ids.size())), ids.toArray());
+        }
+        return rows;
+    }
+
+    // One event per (recipient, template) group in order of its oldest row, a digest when there are several
+    private static List<Event> toEvents(Collection<Pending> rows) {
+
+        Map<List<Object>, List<Pending>> groups = new LinkedHashMap<>();
+        for (Pending p : rows) {
+            groups.computeIfAbsent(List.of(p.recipientId(), p.template(), p.audience()), k -> new ArrayList<>()).add(p);
+        }
+
+        List<Event> events = new ArrayList<>(groups.size());
+        for (List<Pending> group : groups.values()) {
+            Pending first = group.get(0);
+            List<Recipient> to = List.of(new Recipient(first.recipientId(), first.audience()));
+
+            if (group.size() == 1) {
+                events.add(new Event(first.template(), first.params(), first.senderId(), first.appointmentId(), to));
+            } else {
+                events.add(new Event(first.template().digest(),
+                        NotificationTemplate.params(group.size()), null, null, to));
+            }
+        }
+        return events;
     }
 
-    notificationRepository.saveAll(list);
+    private record Pending(Long id,
+                           Long recipientId,
+                           NotificationAudience audience,
+                           NotificationTemplate template,
+                           String params,
+                           Long senderId,
+                           Long appointmentId) {
+    }
+
+    // An event with no receipts yet, for publishTo to fan out
+    @Transactional
+    public long createEvent(NotificationTemplate template, String params, Long senderId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return insertEvents(List.of(new Event(template, params, senderId, null, List.of())), now)[0];
+    }
+
+    /**
+     * Receipts of an existing event for every user the query selects as
+     * (id, audience). The query runs once; the receipts go in as one JDBC
+     * batch, after whatever the coalescer has parked for those users.
+     *
+     * @return the number of receipts inserted
+     */
+    @Transactional
+    public int publishTo(long eventId, String recipientsSql, Object... args) {
+
+        List<Recipient> recipients = jdbcTemplate.query(recipientsSql, (rs, i) -> new Recipient(
+                rs.getLong("id"),
+                NotificationAudience.valueOf(rs.getString("audience"))
+        ), args);
+
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> recipientIds = new LinkedHashSet<>();
+        for (Recipient r : recipients) {
+            recipientIds.add(r.userId());
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Receipt> receipts = receipts(releasePending(recipientIds), now);
+        for (Recipient r : recipients) {
+            receipts.add(new Receipt(eventId, r));
+        }
+        insertReceipts(receipts, now);
+        return recipients.size();
+    }
+
+    private long[] insertEvents(List<Event> events, Timestamp now) {
+        long[] ids = new long[events.size()];
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(EVENT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                int done = 0;
+                while (done < events.size()) {
+                    int end = Math.min(done + BATCH_SIZE, events.size());
+                    for (int i = done; i < end; i++) {
+                        Event e = events.get(i);
+                        ps.setString(1, e.template().name());
+                        ps.setString(2, e.params());
+                        setNullableLong(ps, 3, e.senderId());
+                        setNullableLong(ps, 4, e.appointmentId());
+                        ps.setTimestamp(5, now);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids[done++] = keys.getLong(1);
+                        }
+                    }
+                    if (done != end) {
+                        throw new SQLException("Expected " + (end - done) + " more generated notification event ids");
+                    }
+                }
+            }
+            return null;
+        });
+        return ids;
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    @Transactional
+    public int markAllAsRead(String email) {
+
+    User user = userRepository.findByEmail(email)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+    int marked = notificationRepository.markAllRead(user.getId());
+    unreadNotificationCounter.read(user.getId(), marked);
+    return marked;
 }
 
-    public List<Notification> getNotificationsForUser(String email) {
+    // Marks everything up to the newest notification the client has shown
+    @Transactional
+    public int markReadUpTo(String email, LocalDateTime createdAt, Long id) {
+
+        if (createdAt == null) {
+            throw new RuntimeException("createdAt is required");
+        }
+
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return notificationRepository.findByRecipientOrderByCreatedAtDesc(user);
+        // without an id every row created at that instant counts
+        int marked = notificationRepository.markReadUpTo(user.getId(), createdAt, id != null ? id : Long.MAX_VALUE);
+        unreadNotificationCounter.read(user.getId(), marked);
+        return marked;
     }
 
-    public long getUnreadCount(String email) {
-        User user = userRepository.findByEmail(email)
+    // One page of the user's notifications, newest first
+    public NotificationPage getNotificationPage(String email, String cursor, Integer limit) {
+
+        Long recipientId = userRepository.findIdByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return notificationRepository.countByRecipientAndReadStatusFalse(user);
+        int size = pageSize(limit);
+        PageCursor after = PageCursor.parse(cursor);
+
+        // one extra row tells us whether there is a next page
+        List<NotificationView> rows = notificationRepository.findFeedPage(
+                recipientId, after.createdAt(), after.id(), PageRequest.of(0, size + 1));
+
+        if (rows.size() <= size) {
+            return new NotificationPage(rows, null);
+        }
+
+        List<NotificationView> items = rows.subList(0, size);
+        NotificationView last = items.get(size - 1);
+        return new NotificationPage(items, new PageCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private record PageCursor(LocalDateTime createdAt, Long id) {
+
+        static PageCursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return new PageCursor(null, null);
+            }
+            try {
+                String[] parts = cursor.split(",");
+                return new PageCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+
+        String encode() {
+            return createdAt + "," + id;
+        }
+    }
+
+    // Served from memory, no query once the user's count is warm
+    public long getUnreadCount(String email) {
+        return unreadNotificationCounter.unreadCount(email);
     }
 
     public void markAsRead(Long id, String userEmail) {
@@ -77,7 +415,12 @@ public class NotificationService {
             throw new RuntimeException("Unauthorized");
         }
 
+        boolean wasUnread = !n.isReadStatus();
         n.setReadStatus(true);
         notificationRepository.save(n);
+
+        if (wasUnread) {
+            unreadNotificationCounter.read(n.getRecipient().getId(), 1);
+        }
     }
 }
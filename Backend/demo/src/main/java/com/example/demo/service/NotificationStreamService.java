@@ -0,0 +1,340 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.dto.NotificationView;
+import com.example.demo.repository.LatestNotificationView;
+import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes new notifications to connected clients over Server-Sent Events.
+ *
+ * Connections are async requests, so an idle client holds no thread. The
+ * event id is the notification id: when a recipient gets something new, the
+ * rows after the oldest id their connections have seen are read once and
+ * queued on each connection, and a reconnect with Last-Event-ID replays the
+ * same way. The registry is owned by a single worker thread; a small pool
+ * writes to the sockets. A connection whose queue overflows is closed so the
+ * client reconnects and resumes from its last id.
+ *
+ * {@link #published} only reaches this node's connections at once. Each node
+ * also polls the newest notification id of its connected recipients every
+ * poll-ms, so whatever another node published arrives within that time.
+ */
+@Service
+public class NotificationStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    // per connection; also the most a reconnect replays before asking for a resync
+    private static final int BUFFER_SIZE = 100;
+
+    private static final long HEARTBEAT_SECONDS = 25;
+
+    // recipients per latest-id query when polling
+    private static final int POLL_CHUNK = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+
+    private final long timeoutMillis;
+    private final int maxConnections;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "notification-stream");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ExecutorService senders;
+
+    // only touched from the worker thread
+    private final Map<Long, List<Connection>> connections = new HashMap<>();
+
+    private final AtomicInteger open = new AtomicInteger();
+
+    public NotificationStreamService(NotificationRepository notificationRepository,
+                                     UserRepository userRepository,
+                                     @Value("${notifications.stream.timeout-ms:1800000}") long timeoutMillis,
+                                     @Value("${notifications.stream.max-connections:20000}") int maxConnections,
+                                     @Value("${notifications.stream.sender-threads:4}") int senderThreads,
+                                     @Value("${notifications.stream.poll-ms:2000}") long pollMillis) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.timeoutMillis = timeoutMillis;
+        this.maxConnections = maxConnections;
+
+        AtomicInteger n = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), r -> {
+            Thread t = new Thread(r, "notification-stream-send-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        worker.scheduleAtFixedRate(logged(this::heartbeat), HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        if (pollMillis > 0) {
+            worker.scheduleWithFixedDelay(logged(this::poll), pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    public SseEmitter subscribe(String email, String lastEventId) {
+
+        Long recipientId = userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Long after = parseEventId(lastEventId);
+
+        if (open.incrementAndGet() > maxConnections) {
+            open.decrementAndGet();
+            throw new RuntimeException("Too many open notification streams, try again later");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(recipientId, emitter);
+
+        emitter.onCompletion(() -> {
+            open.decrementAndGet();
+            worker.execute(logged(() -> remove(connection)));
+        });
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitter.complete());
+
+        worker.execute(logged(() -> register(connection, after)));
+        return emitter;
+    }
+
+    // Call after inserting notifications for these recipients; acts once the insert commits
+    public void published(Collection<Long> recipientIds) {
+        List<Long> ids = List.copyOf(recipientIds);
+        PersistenceSupport.afterCommit(() -> worker.execute(logged(() -> ids.forEach(this::deliver))));
+    }
+
+    private void register(Connection connection, Long after) {
+
+        connections.computeIfAbsent(connection.recipientId, k -> new ArrayList<>()).add(connection);
+
+        if (after == null) {
+            connection.lastQueuedId = notificationRepository.findLatestId(connection.recipientId);
+            return;
+        }
+
+        connection.lastQueuedId = after;
+        List<NotificationView> missed = notificationRepository.findViewsAfter(
+                connection.recipientId, after, PageRequest.of(0, BUFFER_SIZE + 1));
+
+        if (missed.size() > BUFFER_SIZE) {
+            // too far behind to replay; the client reloads its feed and we carry on from now
+            connection.lastQueuedId = notificationRepository.findLatestId(connection.recipientId);
+            connection.enqueue(SseEmitter.event().name("resync").data(""), connection.lastQueuedId);
+            return;
+        }
+
+        enqueue(connection, missed);
+    }
+
+    private void deliver(Long recipientId) {
+
+        List<Connection> list = connections.get(recipientId);
+        if (list == null || list.isEmpty()) {
+            return;
+        }
+
+        // a full page means someone may be behind; they overflow and drop out, so this ends
+        List<NotificationView> fresh;
+        do {
+            long from = Long.MAX_VALUE;
+            for (Connection c : list) {
+                if (!c.isClosed()) {
+                    from = Math.min(from, c.lastQueuedId);
+                }
+            }
+            if (from == Long.MAX_VALUE) {
+                return;
+            }
+
+            fresh = notificationRepository.findViewsAfter(recipientId, from, PageRequest.of(0, BUFFER_SIZE + 1));
+
+            for (Connection c : List.copyOf(list)) {
+                enqueue(c, fresh);
+            }
+        } while (fresh.size() > BUFFER_SIZE);
+    }
+
+    // Picks up what other nodes published for recipients connected here
+    private void poll() {
+
+        List<Long> recipientIds = new ArrayList<>(connections.keySet());
+        for (int from = 0; from < recipientIds.size(); from += POLL_CHUNK) {
+            List<Long> chunk = recipientIds.subList(from, Math.min(from + POLL_CHUNK, recipientIds.size()));
+
+            for (LatestNotificationView latest : notificationRepository.findLatestIds(chunk)) {
+                List<Connection> list = connections.get(latest.getRecipientId());
+                if (list != null && list.stream().anyMatch(c -> !c.isClosed() && c.lastQueuedId < latest.getLatestId())) {
+                    deliver(latest.getRecipientId());
+                }
+            }
+        }
+    }
+
+    private void enqueue(Connection connection, List<NotificationView> views) {
+        for (NotificationView view : views) {
+            if (view.getId() <= connection.lastQueuedId) {
+                continue;
+            }
+            if (!connection.enqueue(SseEmitter.event().id(String.valueOf(view.getId()))
+                    .name("notification").data(view), view.getId())) {
+                return;
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (List<Connection> list : connections.values()) {
+            for (Connection c : list) {
+                c.ping();
+            }
+        }
+    }
+
+    private void remove(Connection connection) {
+        List<Connection> list = connections.get(connection.recipientId);
+        if (list != null) {
+            list.remove(connection);
+            if (list.isEmpty()) {
+                connections.remove(connection.recipientId);
+            }
+        }
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Runnable logged(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Notification stream task failed", e);
+            }
+        };
+    }
+
+    // One open stream and the events waiting to be written to it
+    private final class Connection {
+
+        private final Long recipientId;
+        private final SseEmitter emitter;
+
+        // highest notification id handed to this connection, worker thread only
+        private long lastQueuedId;
+
+        private final ArrayDeque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Connection(Long recipientId, SseEmitter emitter) {
+            this.recipientId = recipientId;
+            this.emitter = emitter;
+        }
+
+        // False once the connection is closed, including by this overflow
+        private boolean enqueue(SseEmitter.SseEventBuilder event, long id) {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                if (queue.size() >= BUFFER_SIZE) {
+                    closed = true;
+                    queue.clear();
+                } else {
+                    queue.add(event);
+                    lastQueuedId = Math.max(lastQueuedId, id);
+                    if (!draining) {
+                        draining = true;
+                        senders.execute(this::drain);
+                    }
+                    return true;
+                }
+            }
+            // too slow to keep up, it resumes from Last-Event-ID on reconnect
+            emitter.complete();
+            return false;
+        }
+
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+
+        private void ping() {
+            synchronized (this) {
+                if (closed || !queue.isEmpty()) {
+                    return;
+                }
+                queue.add(SseEmitter.event().comment("ping"));
+                if (!draining) {
+                    draining = true;
+                    senders.execute(this::drain);
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder next;
+                synchronized (this) {
+                    next = closed ? null : queue.poll();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(next);
+                } catch (IOException | IllegalStateException e) {
+                    synchronized (this) {
+                        closed = true;
+                        queue.clear();
+                        draining = false;
+                    }
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
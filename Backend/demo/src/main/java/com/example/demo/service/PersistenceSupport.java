@@ -0,0 +1,32 @@
+package com.example.demo.service;
+
+import java.util.Collections;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Small helpers the services share around transactions and hand written SQL
+final class PersistenceSupport {
+
+    private PersistenceSupport() {
+    }
+
+    // Runs the action once the surrounding transaction commits, or right away outside one
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // "?, ?, ?" for an IN list of count values
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.service;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel of (key, deadline) pairs.
+ *
+ * Level 0 has one bucket per tick; each level above covers a whole turn of
+ * the one below it per bucket. An entry sits in the lowest level its
+ * deadline fits in and moves down a level each time the bucket it is in
+ * comes up, so adding is O(1) and each entry is touched once per level.
+ * Buckets are parallel long arrays, about 16 bytes an entry. Not thread
+ * safe; the owner drives it from one thread.
+ */
+final class ReminderTimingWheel {
+
+    // a callback per fired entry, in tick order
+    interface Expired {
+        void fire(long key, long deadlineMillis);
+    }
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    // 64^4 ticks, a little over 30 years of minutes
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Bucket[][] levels = new Bucket[LEVELS][SLOTS];
+
+    // entries whose tick has already passed, fired on the next advance
+    private final Bucket overdue = new Bucket();
+
+    private long currentTick;
+    private int size;
+
+    ReminderTimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (Bucket[] level : levels) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Bucket();
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(long key, long deadlineMillis) {
+        size++;
+        place(key, deadlineMillis);
+    }
+
+    // Fires every entry due by nowMillis
+    void advance(long nowMillis, Expired expired) {
+        overdue.drain((key, deadline) -> fire(key, deadline, expired));
+
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+
+            // bring the higher buckets starting on this tick down, top first
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    levels[level][(int) ((currentTick >>> (BITS * level)) & MASK)].drain(this::place);
+                }
+            }
+
+            levels[0][(int) (currentTick & MASK)].drain((key, deadline) -> fire(key, deadline, expired));
+            overdue.drain((key, deadline) -> fire(key, deadline, expired));
+        }
+    }
+
+    private void fire(long key, long deadlineMillis, Expired expired) {
+        size--;
+        expired.fire(key, deadlineMillis);
+    }
+
+    private void place(long key, long deadlineMillis) {
+        // rounded up, so nothing fires early
+        long tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+
+        if (tick <= currentTick) {
+            overdue.add(key, deadlineMillis);
+            return;
+        }
+
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * level;
+            if ((tick >>> shift) - (currentTick >>> shift) < SLOTS) {
+                levels[level][(int) ((tick >>> shift) & MASK)].add(key, deadlineMillis);
+                return;
+            }
+        }
+
+        // past the top level: park it in the last bucket to come round, it is re-placed from there
+        int shift = BITS * (LEVELS - 1);
+        levels[LEVELS - 1][(int) (((currentTick >>> shift) + SLOTS - 1) & MASK)].add(key, deadlineMillis);
+    }
+
+    private static final class Bucket {
+
+        private static final long[] NONE = new long[0];
+
+        private long[] keys = NONE;
+        private long[] deadlines = NONE;
+        private int count;
+
+        void add(long key, long deadlineMillis) {
+            if (count == keys.length) {
+                int capacity = Math.max(8, count * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                deadlines = Arrays.copyOf(deadlines, capacity);
+            }
+            keys[count] = key;
+            deadlines[count] = deadlineMillis;
+            count++;
+        }
+
+        // Empties the bucket first, so the callback may add back into it
+        void drain(Expired sink) {
+            if (count == 0) {
+                return;
+            }
+            long[] k = keys;
+            long[] d = deadlines;
+            int n = count;
+            keys = NONE;
+            deadlines = NONE;
+            count = 0;
+            for (int i = 0; i < n; i++) {
+                sink.fire(k[i], d[i]);
+            }
+        }
+    }
+}
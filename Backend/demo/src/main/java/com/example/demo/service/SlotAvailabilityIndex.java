@@ -0,0 +1,247 @@
+package com.example.demo.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.BookedSlotView;
+import com.example.demo.repository.UserRepository;
+
+/**
+ * In-memory booked intervals per (doctor, date).
+ *
+ * A day is loaded from the database the first time somebody asks for it and
+ * is then kept up to date by the booking, reschedule and status-change paths,
+ * so repeated availability lookups never hit MySQL. Intervals are in
+ * minute-of-day, the same unit as the compiled schedule calendar.
+ */
+@Component
+public class SlotAvailabilityIndex {
+
+    // past days are dropped once the index grows beyond this many entries
+    private static final int MAX_ENTRIES = 50_000;
+
+    private static final int DAY_MINUTES = 24 * 60;
+
+    private final AppointmentRepository appointmentRepository;
+    private final UserRepository userRepository;
+    private final DoctorScheduleService doctorScheduleService;
+
+    // interval sets are immutable, updates swap in a new one
+    private final ConcurrentHashMap<SlotKey, BookedIntervals> booked = new ConcurrentHashMap<>();
+
+    // bumped before every update, lets a range load tell if it may be stale
+    private final AtomicLong updates = new AtomicLong();
+
+    public SlotAvailabilityIndex(AppointmentRepository appointmentRepository,
+                                 UserRepository userRepository,
+                                 DoctorScheduleService doctorScheduleService) {
+        this.appointmentRepository = appointmentRepository;
+        this.userRepository = userRepository;
+        this.doctorScheduleService = doctorScheduleService;
+    }
+
+    public List<String> getAvailableSlots(Long doctorId, LocalDate date) {
+        return freeSlots(doctorId, date, intervals(doctorId, date));
+    }
+
+    // Free slots per day for [from, to]; all cold days are loaded with one query
+    public Map<LocalDate, List<String>> getAvailableSlots(Long doctorId, LocalDate from, LocalDate to) {
+
+        if (!booked.containsKey(new SlotKey(doctorId, from)) && !userRepository.existsById(doctorId)) {
+            throw new RuntimeException("Doctor not found");
+        }
+
+        warm(List.of(doctorId), from, to);
+
+        Map<LocalDate, List<String>> out = new LinkedHashMap<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            out.put(d, freeSlots(doctorId, d, intervals(doctorId, d)));
+        }
+        return out;
+    }
+
+    // Slots whose whole length lies in a free gap, walking slots and gaps together
+    private List<String> freeSlots(Long doctorId, LocalDate date, BookedIntervals taken) {
+
+        BitSet slots = doctorScheduleService.slotsOn(doctorId, date);
+        int length = doctorScheduleService.slotMinutes(doctorId, date);
+        List<int[]> gaps = taken.gaps(0, DAY_MINUTES);
+
+        List<String> free = new ArrayList<>(slots.cardinality());
+        int g = 0;
+        for (int m = slots.nextSetBit(0); m >= 0; m = slots.nextSetBit(m + 1)) {
+            while (g < gaps.size() && gaps.get(g)[1] < m + length) {
+                g++;
+            }
+            if (g == gaps.size()) {
+                break;
+            }
+            if (gaps.get(g)[0] <= m) {
+                free.add(DoctorScheduleService.timeOfMinute(m).toString());
+            }
+        }
+        return free;
+    }
+
+    // True when a slot-length appointment at this time would overlap a booking
+    public boolean isBooked(Long doctorId, LocalDate date, LocalTime time) {
+        return overlaps(doctorId, date, time, doctorScheduleService.slotMinutes(doctorId, date));
+    }
+
+    public boolean overlaps(Long doctorId, LocalDate date, LocalTime time, int minutes) {
+        int start = DoctorScheduleService.minuteOfDay(time);
+        return intervals(doctorId, date).overlaps(start, start + minutes);
+    }
+
+    /**
+     * Books [time, time + minutes) if it overlaps nothing, in one atomic step.
+     * Takes effect immediately; a caller whose save fails undoes it with markFree.
+     */
+    public boolean reserve(Long doctorId, LocalDate date, LocalTime time, int minutes) {
+        return reserve(doctorId, date, time, minutes, null);
+    }
+
+    /**
+     * Like {@link #reserve(Long, LocalDate, LocalTime, int)} for an appointment
+     * moving from another interval, which is ignored by the overlap check.
+     * The old interval stays booked until the caller frees it after saving.
+     */
+    public boolean reserveMove(Long doctorId,
+                               LocalDate oldDate, LocalTime oldTime, int oldMinutes,
+                               LocalDate newDate, LocalTime newTime, int newMinutes) {
+        int oldStart = DoctorScheduleService.minuteOfDay(oldTime);
+        int[] ignored = oldDate.equals(newDate) ? new int[] {oldStart, oldStart + oldMinutes} : null;
+        return reserve(doctorId, newDate, newTime, newMinutes, ignored);
+    }
+
+    private boolean reserve(Long doctorId, LocalDate date, LocalTime time, int minutes, int[] ignored) {
+        int start = DoctorScheduleService.minuteOfDay(time);
+        AtomicBoolean reserved = new AtomicBoolean();
+
+        updates.incrementAndGet();
+        booked.compute(new SlotKey(doctorId, date), (k, current) -> {
+            BookedIntervals day = current != null ? current : load(k);
+            BookedIntervals others = ignored == null ? day : day.without(ignored[0], ignored[1]);
+            if (others.overlaps(start, start + minutes)) {
+                return day;
+            }
+            reserved.set(true);
+            return day.with(start, start + minutes);
+        });
+        return reserved.get();
+    }
+
+    public void markFree(Long doctorId, LocalDate date, LocalTime time, int minutes) {
+        PersistenceSupport.afterCommit(() -> update(new SlotKey(doctorId, date), time, minutes, false));
+    }
+
+    private BookedIntervals intervals(Long doctorId, LocalDate date) {
+        SlotKey key = new SlotKey(doctorId, date);
+        BookedIntervals day = booked.get(key);
+        if (day != null) {
+            return day;
+        }
+
+        if (booked.size() > MAX_ENTRIES) {
+            LocalDate today = LocalDate.now();
+            booked.keySet().removeIf(k -> k.date().isBefore(today));
+        }
+
+        // loading inside computeIfAbsent makes a concurrent update wait for the
+        // load instead of being lost against a stale snapshot
+        return booked.computeIfAbsent(key, this::load);
+    }
+
+    private BookedIntervals load(SlotKey key) {
+
+        if (!userRepository.existsById(key.doctorId())) {
+            throw new RuntimeException("Doctor not found");
+        }
+
+        return toIntervals(appointmentRepository.findBookedSlotsOn(key.doctorId(), key.date()));
+    }
+
+    private static BookedIntervals toIntervals(List<BookedSlotView> slots) {
+        int[] starts = new int[slots.size()];
+        int[] ends = new int[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            starts[i] = DoctorScheduleService.minuteOfDay(slots.get(i).getAppointmentTime());
+            ends[i] = starts[i] + slots.get(i).getDurationMinutes();
+        }
+        return BookedIntervals.of(starts, ends);
+    }
+
+    // Loads every cold (doctor, day) in the window with a single query
+    public void warm(Collection<Long> doctorIds, LocalDate from, LocalDate to) {
+
+        List<SlotKey> cold = new ArrayList<>();
+        for (Long doctorId : doctorIds) {
+            for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+                SlotKey key = new SlotKey(doctorId, d);
+                if (!booked.containsKey(key)) {
+                    cold.add(key);
+                }
+            }
+        }
+
+        if (cold.isEmpty()) {
+            return;
+        }
+
+        long stamp = updates.get();
+
+        Map<SlotKey, List<BookedSlotView>> loaded = new HashMap<>();
+        for (BookedSlotView slot : appointmentRepository.findBookedSlots(doctorIds, from, to)) {
+            loaded.computeIfAbsent(new SlotKey(slot.getDoctorId(), slot.getAppointmentDate()), k -> new ArrayList<>())
+                    .add(slot);
+        }
+
+        // an update since the query may have missed our snapshot, reload that day alone
+        for (SlotKey key : cold) {
+            booked.computeIfAbsent(key, k -> updates.get() == stamp
+                    ? toIntervals(loaded.getOrDefault(k, List.of()))
+                    : load(k));
+        }
+    }
+
+    // First free slot of the day at or after the given minute, or -1
+    public int nextFreeMinute(Long doctorId, LocalDate date, int fromMinute) {
+
+        BitSet slots = doctorScheduleService.slotsOn(doctorId, date);
+        int length = doctorScheduleService.slotMinutes(doctorId, date);
+        BookedIntervals taken = intervals(doctorId, date);
+
+        int m = slots.nextSetBit(fromMinute);
+        while (m >= 0 && taken.overlaps(m, m + length)) {
+            m = slots.nextSetBit(m + 1);
+        }
+        return m;
+    }
+
+    private void update(SlotKey key, LocalTime time, int minutes, boolean taken) {
+        int start = DoctorScheduleService.minuteOfDay(time);
+
+        updates.incrementAndGet();
+
+        // days nobody has asked for yet stay cold and load fresh later
+        booked.computeIfPresent(key, (k, current) -> taken
+                ? current.with(start, start + minutes)
+                : current.without(start, start + minutes));
+    }
+
+    private record SlotKey(Long doctorId, LocalDate date) {
+    }
+}
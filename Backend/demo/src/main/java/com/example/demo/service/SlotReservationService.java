@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Short-lived in-process holds on (doctor, date, time) slots.
+ *
+ * A hold is taken with a single compare-and-set on a concurrent map, so of
+ * several requests racing for one slot exactly one gets through to the
+ * database and the rest are turned away without a query. The overlap check
+ * AppointmentService makes under a lock on the doctor stays the final arbiter
+ * across nodes.
+ */
+@Component
+public class SlotReservationService {
+
+    static final Duration HOLD_TTL = Duration.ofSeconds(60);
+
+    // expired holds are swept once the map grows beyond this
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final ConcurrentHashMap<SlotRef, Hold> holds = new ConcurrentHashMap<>();
+
+    // Token for the new hold, or null if somebody else holds the slot
+    public String tryHold(Long doctorId, LocalDate date, LocalTime time) {
+        return acquire(new SlotRef(doctorId, date, time), null, HOLD_TTL);
+    }
+
+    public String tryHold(Long doctorId, LocalDate date, LocalTime time, Duration ttl) {
+        return acquire(new SlotRef(doctorId, date, time), null, ttl);
+    }
+
+    // Re-validates a token handed out earlier, or takes a fresh hold if none was given
+    public String claim(Long doctorId, LocalDate date, LocalTime time, String token) {
+        return acquire(new SlotRef(doctorId, date, time), token, HOLD_TTL);
+    }
+
+    public String claim(Long doctorId, LocalDate date, LocalTime time, String token, Duration ttl) {
+        return acquire(new SlotRef(doctorId, date, time), token, ttl);
+    }
+
+    // Drops the hold, after the surrounding transaction if there is one
+    public void release(Long doctorId, LocalDate date, LocalTime time, String token) {
+        SlotRef ref = new SlotRef(doctorId, date, time);
+        Runnable drop = () -> holds.computeIfPresent(ref, (k, h) -> h.token().equals(token) ? null : h);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    drop.run();
+                }
+            });
+        } else {
+            drop.run();
+        }
+    }
+
+    private String acquire(SlotRef ref, String token, Duration ttl) {
+
+        if (holds.size() > SWEEP_THRESHOLD) {
+            long now = System.nanoTime();
+            holds.values().removeIf(h -> h.expiredAt(now));
+        }
+
+        String candidate = token != null ? token : UUID.randomUUID().toString();
+        long now = System.nanoTime();
+
+        Hold result = holds.compute(ref, (k, current) -> {
+            if (current == null || current.expiredAt(now) || current.token().equals(candidate)) {
+                return new Hold(candidate, now + ttl.toNanos());
+            }
+            return current;
+        });
+
+        return result.token().equals(candidate) ? candidate : null;
+    }
+
+    private record SlotRef(Long doctorId, LocalDate date, LocalTime time) {
+    }
+
+    private record Hold(String token, long expiresAtNanos) {
+
+        boolean expiredAt(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.DoctorSummary;
+import com.example.demo.dto.OpenSlotResponse;
+import com.example.demo.repository.DoctorProfileRepository;
+
+/**
+ * Finds the earliest open slots across every doctor of a specialization.
+ *
+ * Each doctor contributes a cursor walking their free slots in time order;
+ * a priority queue merges the cursors so only as many slots are looked at
+ * as are returned, plus one per doctor.
+ */
+@Service
+public class SlotSearchService {
+
+    private static final int MAX_WINDOW_DAYS = 31;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    private final DoctorProfileRepository doctorProfileRepository;
+    private final SlotAvailabilityIndex slotAvailabilityIndex;
+
+    public SlotSearchService(DoctorProfileRepository doctorProfileRepository,
+                             SlotAvailabilityIndex slotAvailabilityIndex) {
+        this.doctorProfileRepository = doctorProfileRepository;
+        this.slotAvailabilityIndex = slotAvailabilityIndex;
+    }
+
+    public List<OpenSlotResponse> findEarliest(String specialization,
+                                               Long hospitalId,
+                                               LocalDate from,
+                                               LocalDate to,
+                                               Integer limit) {
+
+        if (specialization == null || specialization.isBlank()) {
+            throw new RuntimeException("Specialization is required");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (from.isBefore(now.toLocalDate())) {
+            from = now.toLocalDate();
+        }
+        if (to.isBefore(from)) {
+            return List.of();
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_WINDOW_DAYS) {
+            throw new RuntimeException("Date range too large (max " + MAX_WINDOW_DAYS + " days)");
+        }
+
+        int wanted = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        List<DoctorSummary> doctors = doctorProfileRepository.findSummaries(specialization.trim(), hospitalId);
+        if (doctors.isEmpty()) {
+            return List.of();
+        }
+
+        // one query fills every cold (doctor, day) of the window
+        slotAvailabilityIndex.warm(doctors.stream().map(DoctorSummary::getId).toList(), from, to);
+
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(
+                Comparator.comparing(Cursor::date)
+                        .thenComparingInt(Cursor::minute)
+                        .thenComparing(c -> c.doctor().getId()));
+
+        int firstMinute = DoctorScheduleService.minuteOfDay(now.toLocalTime()) + 1;
+        for (DoctorSummary doctor : doctors) {
+            int start = from.equals(now.toLocalDate()) ? firstMinute : 0;
+            Cursor c = seek(doctor, from, start, to);
+            if (c != null) {
+                queue.add(c);
+            }
+        }
+
+        List<OpenSlotResponse> out = new ArrayList<>(wanted);
+        while (out.size() < wanted && !queue.isEmpty()) {
+            Cursor c = queue.poll();
+            out.add(new OpenSlotResponse(c.doctor(), c.date(), DoctorScheduleService.timeOfMinute(c.minute())));
+
+            Cursor next = seek(c.doctor(), c.date(), c.minute() + 1, to);
+            if (next != null) {
+                queue.add(next);
+            }
+        }
+        return out;
+    }
+
+    // Next free slot of the doctor at or after (date, minute), within the window
+    private Cursor seek(DoctorSummary doctor, LocalDate date, int minute, LocalDate to) {
+        for (LocalDate d = date; !d.isAfter(to); d = d.plusDays(1), minute = 0) {
+            int m = slotAvailabilityIndex.nextFreeMinute(doctor.getId(), d, minute);
+            if (m >= 0) {
+                return new Cursor(doctor, d, m);
+            }
+        }
+        return null;
+    }
+
+    private record Cursor(DoctorSummary doctor, LocalDate date, int minute) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.repository.NotificationRepository;
+import com.example.demo.repository.UnreadCountView;
+import com.example.demo.repository.UserRepository;
+
+/**
+ * In-memory unread notification counts per recipient.
+ *
+ * A count is loaded the first time it is asked for, then moved by the
+ * create and mark-read paths after their transaction commits. A periodic
+ * reconcile corrects any drift against the database.
+ */
+@Component
+public class UnreadNotificationCounter {
+
+    // counts and ids are dropped wholesale past these sizes and reload on demand
+    private static final int MAX_ENTRIES = 100_000;
+
+    private static final int RECONCILE_CHUNK = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+
+    private final ConcurrentHashMap<Long, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    // emails can't change after sign-up, so this never goes stale
+    private final ConcurrentHashMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    // bumped on every change, lets a reconcile tell if its query may be stale
+    private final AtomicLong updates = new AtomicLong();
+
+    public UnreadNotificationCounter(NotificationRepository notificationRepository,
+                                     UserRepository userRepository) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+    }
+
+    public long unreadCount(String email) {
+
+        if (idsByEmail.size() > MAX_ENTRIES) {
+            idsByEmail.clear();
+        }
+        Long recipientId = idsByEmail.computeIfAbsent(email, e -> userRepository.findIdByEmail(e)
+                .orElseThrow(() -> new RuntimeException("User not found")));
+
+        return unreadCount(recipientId);
+    }
+
+    public long unreadCount(Long recipientId) {
+
+        if (counts.size() > MAX_ENTRIES) {
+            counts.clear();
+        }
+        return counts.computeIfAbsent(recipientId,
+                id -> new AtomicLong(notificationRepository.countByRecipientIdAndReadStatusFalse(id))).get();
+    }
+
+    public void added(Long recipientId, int count) {
+        PersistenceSupport.afterCommit(() -> adjust(recipientId, count));
+    }
+
+    public void added(Map<Long, Integer> countsByRecipient) {
+        PersistenceSupport.afterCommit(() -> countsByRecipient.forEach(this::adjust));
+    }
+
+    public void read(Long recipientId, int count) {
+        if (count > 0) {
+            PersistenceSupport.afterCommit(() -> adjust(recipientId, -count));
+        }
+    }
+
+    // For deletes that can't say how many were unread; the count reloads on the next read
+    public void forget(Long recipientId) {
+        updates.incrementAndGet();
+        counts.remove(recipientId);
+    }
+
+    // recipients nobody has asked about stay cold and load fresh later
+    private void adjust(Long recipientId, int delta) {
+        updates.incrementAndGet();
+        AtomicLong count = counts.get(recipientId);
+        if (count != null) {
+            count.accumulateAndGet(delta, (current, d) -> Math.max(0, current + d));
+        }
+    }
+
+    // each node reconciles its own cache
+    @EveryNode
+    @Scheduled(fixedDelayString = "${notifications.unread.reconcile-ms:300000}")
+    public void reconcile() {
+
+        List<Long> ids = new ArrayList<>(counts.keySet());
+        for (int from = 0; from < ids.size(); from += RECONCILE_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + RECONCILE_CHUNK, ids.size()));
+
+            long stamp = updates.get();
+
+            Map<Long, Long> fresh = new HashMap<>();
+            for (UnreadCountView row : notificationRepository.countUnread(chunk)) {
+                fresh.put(row.getRecipientId(), row.getUnread());
+            }
+
+            // a change since the query may be missing from it, those reload on the next read
+            boolean stale = updates.get() != stamp;
+            for (Long id : chunk) {
+                if (stale) {
+                    counts.remove(id);
+                } else {
+                    AtomicLong count = counts.get(id);
+                    if (count != null) {
+                        count.set(fresh.getOrDefault(id, 0L));
+                    }
+                }
+            }
+        }
+    }
+}
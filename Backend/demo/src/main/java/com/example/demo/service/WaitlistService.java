@@ -0,0 +1,358 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.WaitlistRequest;
+import com.example.demo.dto.WaitlistResponse;
+import com.example.demo.entity.NotificationAudience;
+import com.example.demo.entity.NotificationTemplate;
+import com.example.demo.entity.User;
+import com.example.demo.entity.WaitlistEntry;
+import com.example.demo.entity.WaitlistStatus;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.BookedSlotView;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.WaitlistEntryRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Offers freed slots to patients waiting on a doctor.
+ *
+ * The queue is waitlist_entry itself, so whichever node frees a slot can
+ * offer it. The oldest WAITING entry covering the day is picked with FOR
+ * UPDATE SKIP LOCKED and becomes OFFERED; that row is the hold, checked by
+ * {@link #heldForOther} on every node's booking path, and a unique key keeps
+ * a slot to one offer. Every node sweeps offers older than {@link #OFFER_TTL}
+ * and moves them on to the next waiting patient.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    static final Duration OFFER_TTL = Duration.ofMinutes(15);
+
+    private static final int MAX_RANGE_DAYS = 31;
+    private static final List<WaitlistStatus> ACTIVE = List.of(WaitlistStatus.WAITING, WaitlistStatus.OFFERED);
+
+    // on idx_waitlist_doctor_status; a node offering another slot of the day skips to the next patient
+    private static final String NEXT_SQL = "select id from waitlist_entry"
+            + " where doctor_id = ? and status = 'WAITING' and from_date <= ? and to_date >= ?"
+            + " order by created_at, id limit 1 for update skip locked";
+
+    private static final String HELD_SQL = "select count(*) from waitlist_entry"
+            + " where doctor_id = ? and status = 'OFFERED' and offer_date = ? and offer_time = ?"
+            + " and offer_expires_at > ? and (? is null or hold_token <> ?)";
+
+    private static final String EXPIRED_SQL = "select id from waitlist_entry"
+            + " where status = 'OFFERED' and offer_expires_at <= ? order by offer_expires_at limit ?";
+
+    private static final String LOCK_EXPIRED_SQL = "select id from waitlist_entry"
+            + " where id = ? and status = 'OFFERED' and offer_expires_at <= ? for update skip locked";
+
+    private static final String DROP_PAST_SQL = "update waitlist_entry set status = 'EXPIRED'"
+            + " where status = 'WAITING' and to_date < ?";
+
+    private static final int EXPIRED_PER_SWEEP = 500;
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final UserRepository userRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final NotificationService notificationService;
+    private final SlotAvailabilityIndex slotAvailabilityIndex;
+    private final DoctorScheduleService doctorScheduleService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // offers are made off the request thread, one at a time per node
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "waitlist");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository,
+                           UserRepository userRepository,
+                           AppointmentRepository appointmentRepository,
+                           NotificationService notificationService,
+                           SlotAvailabilityIndex slotAvailabilityIndex,
+                           DoctorScheduleService doctorScheduleService,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.userRepository = userRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.notificationService = notificationService;
+        this.slotAvailabilityIndex = slotAvailabilityIndex;
+        this.doctorScheduleService = doctorScheduleService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public WaitlistResponse join(WaitlistRequest request, String patientEmail) {
+
+        User patient = userRepository.findByEmail(patientEmail)
+                .orElseThrow(() -> new RuntimeException("Patient not found"));
+
+        User doctor = userRepository.findById(request.getDoctorId())
+                .orElseThrow(() -> new RuntimeException("Doctor not found"));
+
+        if (!doctor.getRole().name().equals("DOCTOR")) {
+            throw new RuntimeException("Selected user is not a doctor");
+        }
+
+        LocalDate from = request.getFrom();
+        LocalDate to = request.getTo();
+
+        if (from == null || to == null || to.isBefore(from) || from.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Invalid date range");
+        }
+
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new RuntimeException("Date range too large (max " + MAX_RANGE_DAYS + " days)");
+        }
+
+        if (waitlistEntryRepository.existsByPatientAndDoctorAndStatusIn(patient, doctor, ACTIVE)) {
+            throw new RuntimeException("Already on this doctor's waitlist");
+        }
+
+        boolean open = slotAvailabilityIndex.getAvailableSlots(doctor.getId(), from, to)
+                .values().stream().anyMatch(slots -> !slots.isEmpty());
+        if (open) {
+            throw new RuntimeException("Slots are available in this range, please book one directly");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setPatient(patient);
+        entry.setDoctor(doctor);
+        entry.setFromDate(from);
+        entry.setToDate(to);
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setCreatedAt(LocalDateTime.now());
+
+        return new WaitlistResponse(waitlistEntryRepository.save(entry));
+    }
+
+    public List<WaitlistResponse> getMyEntries(String patientEmail) {
+
+        User patient = userRepository.findByEmail(patientEmail)
+                .orElseThrow(() -> new RuntimeException("Patient not found"));
+
+        return waitlistEntryRepository.findByPatientOrderByCreatedAtDesc(patient)
+                .stream()
+                .map(WaitlistResponse::new)
+                .toList();
+    }
+
+    public void leave(Long entryId, String patientEmail) {
+
+        WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+
+        if (!entry.getPatient().getEmail().equals(patientEmail)) {
+            throw new RuntimeException("Unauthorized action");
+        }
+
+        if (!ACTIVE.contains(entry.getStatus())) {
+            return;
+        }
+
+        boolean offered = entry.getStatus() == WaitlistStatus.OFFERED;
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        waitlistEntryRepository.save(entry);
+
+        if (offered) {
+            Long doctorId = entry.getDoctor().getId();
+            worker.execute(logged(() -> offerNext(doctorId, entry.getOfferDate(), entry.getOfferTime())));
+        }
+    }
+
+    // Called once a slot stops being held by an appointment
+    public void slotFreed(Long doctorId, LocalDate date, LocalTime time) {
+        PersistenceSupport.afterCommit(() -> worker.execute(logged(() -> offerNext(doctorId, date, time))));
+    }
+
+    // Called after the patient booked with the doctor, their entries are done
+    public void booked(Long patientId, Long doctorId) {
+
+        List<WaitlistEntry> entries =
+                waitlistEntryRepository.findByPatientIdAndDoctorIdAndStatusIn(patientId, doctorId, ACTIVE);
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        // an offer of some other slot is given up and goes to the next patient
+        List<WaitlistEntry> offered = entries.stream()
+                .filter(e -> e.getStatus() == WaitlistStatus.OFFERED)
+                .toList();
+
+        for (WaitlistEntry entry : entries) {
+            entry.setStatus(WaitlistStatus.BOOKED);
+        }
+        waitlistEntryRepository.saveAll(entries);
+
+        for (WaitlistEntry entry : offered) {
+            worker.execute(logged(() -> offerNext(doctorId, entry.getOfferDate(), entry.getOfferTime())));
+        }
+    }
+
+    /**
+     * True while the slot is offered to a waitlisted patient other than the
+     * one holding this token. Read from the database, so an offer made on
+     * any node counts.
+     */
+    public boolean heldForOther(Long doctorId, LocalDate date, LocalTime time, String token) {
+        Integer held = jdbcTemplate.queryForObject(HELD_SQL, Integer.class,
+                doctorId, date, time, Timestamp.valueOf(LocalDateTime.now()), token, token);
+        return held != null && held > 0;
+    }
+
+    private void offerNext(Long doctorId, LocalDate date, LocalTime time) {
+
+        if (LocalDateTime.of(date, time).isBefore(LocalDateTime.now())) {
+            return;
+        }
+
+        WaitlistEntry entry;
+        try {
+            entry = transactionTemplate.execute(tx -> {
+
+                // the local index may not have another node's booking yet
+                if (bookedInDatabase(doctorId, date, time)) {
+                    return null;
+                }
+
+                List<Long> next = jdbcTemplate.queryForList(NEXT_SQL, Long.class, doctorId, date, date);
+                if (next.isEmpty()) {
+                    return null;
+                }
+
+                WaitlistEntry e = waitlistEntryRepository.findById(next.get(0)).orElseThrow();
+                e.setStatus(WaitlistStatus.OFFERED);
+                e.setOfferDate(date);
+                e.setOfferTime(time);
+                e.setHoldToken(UUID.randomUUID().toString());
+                e.setOfferExpiresAt(LocalDateTime.now().plus(OFFER_TTL));
+                return waitlistEntryRepository.saveAndFlush(e);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // uk_waitlist_offer: the slot is already offered to somebody
+            return;
+        }
+
+        if (entry == null) {
+            return;
+        }
+
+        try {
+            notify(entry, NotificationTemplate.WAITLIST_OFFER,
+                    entry.getDoctor().getName(), date, time, OFFER_TTL.toMinutes());
+        } catch (Exception e) {
+            logger.error("Failed to create waitlist offer notification", e);
+        }
+    }
+
+    private boolean bookedInDatabase(Long doctorId, LocalDate date, LocalTime time) {
+        int start = DoctorScheduleService.minuteOfDay(time);
+        int end = start + doctorScheduleService.slotMinutes(doctorId, date);
+        for (BookedSlotView slot : appointmentRepository.findBookedSlotsOn(doctorId, date)) {
+            int from = DoctorScheduleService.minuteOfDay(slot.getAppointmentTime());
+            if (from < end && start < from + slot.getDurationMinutes()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void notify(WaitlistEntry entry, NotificationTemplate template, Object... params) {
+        notificationService.publish(List.of(new NotificationService.Event(
+                template,
+                NotificationTemplate.params(params),
+                entry.getDoctor().getId(),
+                null,
+                List.of(new NotificationService.Recipient(entry.getPatient().getId(), NotificationAudience.PATIENT)))));
+    }
+
+    // Every node sweeps; SKIP LOCKED keeps two of them off the same offer
+    @EveryNode
+    @Scheduled(fixedDelayString = "${waitlist.expiry-poll-ms:30000}")
+    public void expireOffers() {
+        List<Long> ids = jdbcTemplate.queryForList(EXPIRED_SQL, Long.class,
+                Timestamp.valueOf(LocalDateTime.now()), EXPIRED_PER_SWEEP);
+        for (Long id : ids) {
+            try {
+                expire(id);
+            } catch (Exception e) {
+                logger.error("Failed to expire waitlist offer {}", id, e);
+            }
+        }
+    }
+
+    private void expire(Long entryId) {
+
+        WaitlistEntry entry = transactionTemplate.execute(tx -> {
+            if (jdbcTemplate.queryForList(LOCK_EXPIRED_SQL, Long.class,
+                    entryId, Timestamp.valueOf(LocalDateTime.now())).isEmpty()) {
+                return null;
+            }
+            WaitlistEntry e = waitlistEntryRepository.findById(entryId).orElseThrow();
+            e.setStatus(WaitlistStatus.EXPIRED);
+            return waitlistEntryRepository.save(e);
+        });
+
+        if (entry == null) {
+            return;
+        }
+
+        try {
+            notify(entry, NotificationTemplate.WAITLIST_EXPIRED,
+                    entry.getDoctor().getName(), entry.getOfferDate(), entry.getOfferTime());
+        } catch (Exception e) {
+            logger.error("Failed to create waitlist expiry notification", e);
+        }
+
+        offerNext(entry.getDoctor().getId(), entry.getOfferDate(), entry.getOfferTime());
+    }
+
+    // Entries whose whole range is in the past will never get an offer; repeating it on each node is harmless
+    @EveryNode
+    @Scheduled(fixedDelayString = "${waitlist.cleanup-ms:3600000}")
+    public void dropPastDays() {
+        jdbcTemplate.update(DROP_PAST_SQL, LocalDate.now());
+    }
+
+    // a failed task must not vanish silently
+    private Runnable logged(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Waitlist task failed", e);
+            }
+        };
+    }
+}
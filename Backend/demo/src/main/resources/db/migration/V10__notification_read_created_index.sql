@@ -0,0 +1,2 @@
+-- The retention purge takes expired read notifications off the front of this index
+CREATE INDEX idx_notification_read_created ON notification (read_status, created_at);
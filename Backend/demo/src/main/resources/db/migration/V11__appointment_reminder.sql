@@ -0,0 +1,9 @@
+-- One row per appointment and date a next-day reminder went out for.
+-- A reschedule moves the date, so the new day gets its own reminder.
+-- Rows for past dates are cleared by the reminder job itself.
+CREATE TABLE appointment_reminder (
+    appointment_id BIGINT NOT NULL,
+    appointment_date DATE NOT NULL,
+    sent_at DATETIME(6),
+    PRIMARY KEY (appointment_id, appointment_date)
+) ENGINE=InnoDB;
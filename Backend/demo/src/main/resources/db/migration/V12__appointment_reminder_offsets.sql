@@ -0,0 +1,13 @@
+-- Reminders now go out at several offsets before the appointment, and a
+-- move within the same day needs a fresh one, so both join the key.
+ALTER TABLE appointment_reminder
+    ADD COLUMN appointment_time TIME NOT NULL DEFAULT '00:00:00',
+    ADD COLUMN offset_minutes INT NOT NULL DEFAULT 1440;
+
+UPDATE appointment_reminder r
+    JOIN appointment a ON a.id = r.appointment_id
+    SET r.appointment_time = a.appointment_time;
+
+ALTER TABLE appointment_reminder
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (appointment_id, appointment_date, appointment_time, offset_minutes);
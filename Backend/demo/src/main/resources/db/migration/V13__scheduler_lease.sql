@@ -0,0 +1,9 @@
+-- Leases that keep a scheduled job, or one shard of it, on a single node.
+-- Times are set from the database clock so nodes needn't agree on theirs.
+CREATE TABLE scheduler_lease (
+    name VARCHAR(128) NOT NULL,
+    owner VARCHAR(128),
+    acquired_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE=InnoDB;
@@ -0,0 +1,65 @@
+-- Notifications become one immutable event per happening plus a slim receipt
+-- per recipient. The text is rendered from template and params when read.
+CREATE TABLE notification_event (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    template VARCHAR(64) NOT NULL,
+    params VARCHAR(1024),
+    sender_id BIGINT,
+    appointment_id BIGINT,
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_notification_event_sender FOREIGN KEY (sender_id) REFERENCES users (id),
+    CONSTRAINT fk_notification_event_appointment FOREIGN KEY (appointment_id) REFERENCES appointment (id)
+) ENGINE=InnoDB;
+
+-- Existing rows keep their stored text as one TEXT event each (params are type, 0x1F, message)
+INSERT INTO notification_event (id, template, params, sender_id, appointment_id, created_at)
+SELECT id, 'TEXT', CONCAT(COALESCE(type, ''), CHAR(31 USING utf8mb4), COALESCE(message, '')), sender_id, appointment_id, created_at
+FROM notification;
+
+ALTER TABLE notification
+    ADD COLUMN event_id BIGINT,
+    ADD COLUMN audience VARCHAR(16) NOT NULL DEFAULT 'PATIENT';
+
+UPDATE notification SET event_id = id;
+
+ALTER TABLE notification
+    MODIFY event_id BIGINT NOT NULL,
+    ADD CONSTRAINT fk_notification_event FOREIGN KEY (event_id) REFERENCES notification_event (id);
+
+-- The sender and appointment foreign keys have generated names on databases
+-- created by ddl-auto, so look them up before the columns go.
+SET @sender_fk := (
+    SELECT MAX(constraint_name)
+    FROM information_schema.key_column_usage
+    WHERE table_schema = DATABASE()
+      AND table_name = 'notification'
+      AND column_name = 'sender_id'
+      AND referenced_table_name IS NOT NULL
+);
+SET @drop_sender_fk := IF(@sender_fk IS NULL, 'SELECT 1',
+    CONCAT('ALTER TABLE notification DROP FOREIGN KEY `', @sender_fk, '`'));
+PREPARE drop_sender_fk FROM @drop_sender_fk;
+EXECUTE drop_sender_fk;
+DEALLOCATE PREPARE drop_sender_fk;
+
+SET @appointment_fk := (
+    SELECT MAX(constraint_name)
+    FROM information_schema.key_column_usage
+    WHERE table_schema = DATABASE()
+      AND table_name = 'notification'
+      AND column_name = 'appointment_id'
+      AND referenced_table_name IS NOT NULL
+);
+SET @drop_appointment_fk := IF(@appointment_fk IS NULL, 'SELECT 1',
+    CONCAT('ALTER TABLE notification DROP FOREIGN KEY `', @appointment_fk, '`'));
+PREPARE drop_appointment_fk FROM @drop_appointment_fk;
+EXECUTE drop_appointment_fk;
+DEALLOCATE PREPARE drop_appointment_fk;
+
+ALTER TABLE notification
+    DROP COLUMN sender_id,
+    DROP COLUMN appointment_id,
+    DROP COLUMN type,
+    DROP COLUMN message,
+    DROP COLUMN link;
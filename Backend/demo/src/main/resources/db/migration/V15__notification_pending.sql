@@ -0,0 +1,14 @@
+-- Receipts held back to be merged into one digest per recipient and template.
+-- Written in the same transaction as the outbox delete, so nothing is lost.
+CREATE TABLE notification_pending (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    recipient_id BIGINT NOT NULL,
+    audience VARCHAR(16) NOT NULL,
+    template VARCHAR(64) NOT NULL,
+    params VARCHAR(1024),
+    sender_id BIGINT,
+    appointment_id BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_notification_pending_recipient (recipient_id, template, audience, id)
+) ENGINE=InnoDB;
@@ -0,0 +1,23 @@
+-- Admin announcements and how far their fan-out has got. Receipts are written
+-- in user id order, last_user_id moving with each committed chunk, so a run
+-- that stops part way resumes where it left off. reference_date is the day
+-- hospital targeting counts upcoming appointments from, fixed for the run.
+CREATE TABLE broadcast (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    event_id BIGINT NOT NULL,
+    created_by BIGINT,
+    roles VARCHAR(64),
+    hospital_ids VARCHAR(1024),
+    reference_date DATE NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    last_user_id BIGINT NOT NULL,
+    max_user_id BIGINT NOT NULL,
+    total INT NOT NULL,
+    delivered INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    finished_at DATETIME(6),
+    PRIMARY KEY (id),
+    KEY idx_broadcast_status (status),
+    CONSTRAINT fk_broadcast_event FOREIGN KEY (event_id) REFERENCES notification_event (id),
+    CONSTRAINT fk_broadcast_created_by FOREIGN KEY (created_by) REFERENCES users (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,7 @@
+-- Bumped on every schedule edit so each node can tell its compiled calendar
+-- of a doctor is out of date. schedule_updated_at lets a node poll for the
+-- doctors edited since it last looked.
+ALTER TABLE doctor_profile
+    ADD COLUMN schedule_version BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN schedule_updated_at DATETIME(6),
+    ADD KEY idx_doctor_profile_schedule_updated (schedule_updated_at);
@@ -0,0 +1,8 @@
+-- Waitlist queues are read from the table instead of per-node memory: the
+-- next waiting entry for a doctor comes off idx_waitlist_doctor_status, and
+-- the OFFERED row is the hold on its slot, one offer per slot.
+CREATE INDEX idx_waitlist_doctor_status ON waitlist_entry (doctor_id, status, created_at);
+
+ALTER TABLE waitlist_entry
+    ADD COLUMN offered_doctor_id BIGINT AS (CASE WHEN status = 'OFFERED' THEN doctor_id END) STORED,
+    ADD UNIQUE KEY uk_waitlist_offer (offered_doctor_id, offer_date, offer_time);
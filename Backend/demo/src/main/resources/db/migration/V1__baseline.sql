@@ -0,0 +1,108 @@
+-- Schema as it was created by ddl-auto=update before migrations were introduced.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    enabled BIT NOT NULL,
+    name VARCHAR(255),
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255),
+    role VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE hospital (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    address VARCHAR(255),
+    contact_number VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE patient_profile (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT,
+    phone_number VARCHAR(255),
+    gender VARCHAR(255),
+    blood_group VARCHAR(255),
+    height DOUBLE,
+    weight DOUBLE,
+    sugar_level DOUBLE,
+    address VARCHAR(255),
+    allergies VARCHAR(255),
+    emergency_contact VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_patient_profile_user UNIQUE (user_id),
+    CONSTRAINT fk_patient_profile_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE doctor_profile (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT,
+    phone_number VARCHAR(255),
+    specialization VARCHAR(255),
+    experience_years INT,
+    qualification VARCHAR(255),
+    license_number VARCHAR(255),
+    hospital_id BIGINT,
+    consultation_mode VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_doctor_profile_user UNIQUE (user_id),
+    CONSTRAINT fk_doctor_profile_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_doctor_profile_hospital FOREIGN KEY (hospital_id) REFERENCES hospital (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE appointment (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    appointment_date DATE,
+    appointment_time TIME,
+    reason VARCHAR(255),
+    status VARCHAR(255),
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_appointment_doctor_date_time UNIQUE (doctor_id, appointment_date, appointment_time),
+    CONSTRAINT fk_appointment_patient FOREIGN KEY (patient_id) REFERENCES users (id),
+    CONSTRAINT fk_appointment_doctor FOREIGN KEY (doctor_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE notification (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    recipient_id BIGINT NOT NULL,
+    sender_id BIGINT,
+    type VARCHAR(255),
+    message VARCHAR(255),
+    link VARCHAR(255),
+    read_status BIT NOT NULL,
+    created_at DATETIME(6),
+    appointment_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_notification_recipient FOREIGN KEY (recipient_id) REFERENCES users (id),
+    CONSTRAINT fk_notification_sender FOREIGN KEY (sender_id) REFERENCES users (id),
+    CONSTRAINT fk_notification_appointment FOREIGN KEY (appointment_id) REFERENCES appointment (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE feedback (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    rating INT NOT NULL,
+    comment VARCHAR(255),
+    created_at DATETIME(6),
+    appointment_id BIGINT,
+    doctor_id BIGINT,
+    patient_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_feedback_appointment UNIQUE (appointment_id),
+    CONSTRAINT fk_feedback_appointment FOREIGN KEY (appointment_id) REFERENCES appointment (id),
+    CONSTRAINT fk_feedback_doctor FOREIGN KEY (doctor_id) REFERENCES users (id),
+    CONSTRAINT fk_feedback_patient FOREIGN KEY (patient_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE email_otp (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    otp VARCHAR(255) NOT NULL,
+    expiry_time DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,52 @@
+-- Releasable slots: slot_active is 1 while an appointment holds its slot and
+-- NULL once it is cancelled or rejected, so the unique key ignores those rows.
+ALTER TABLE appointment ADD COLUMN slot_active BIT;
+
+UPDATE appointment SET slot_active = 1 WHERE status NOT IN ('CANCELLED', 'REJECTED');
+
+ALTER TABLE appointment
+    ADD CONSTRAINT uk_appointment_slot UNIQUE (doctor_id, appointment_date, appointment_time, slot_active);
+
+-- Hot-path indexes
+CREATE INDEX idx_appointment_doctor_day ON appointment (doctor_id, appointment_date, appointment_time, id);
+CREATE INDEX idx_appointment_patient_day ON appointment (patient_id, appointment_date, appointment_time, id);
+CREATE INDEX idx_appointment_patient_status ON appointment (patient_id, status);
+CREATE INDEX idx_appointment_doctor_date_status ON appointment (doctor_id, appointment_date, status);
+
+CREATE INDEX idx_notification_recipient_read ON notification (recipient_id, read_status);
+CREATE INDEX idx_notification_recipient_created ON notification (recipient_id, created_at);
+
+CREATE INDEX idx_feedback_doctor ON feedback (doctor_id);
+
+-- The old three-column unique key has a generated name on databases created by
+-- ddl-auto, so look it up. It has to go after the new indexes above, which take
+-- over its role as the index behind the doctor_id foreign key.
+SET @old_uk := (
+    SELECT index_name
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE()
+      AND table_name = 'appointment'
+      AND non_unique = 0
+      AND index_name <> 'PRIMARY'
+    GROUP BY index_name
+    HAVING GROUP_CONCAT(column_name ORDER BY seq_in_index) = 'doctor_id,appointment_date,appointment_time'
+);
+SET @drop_old_uk := IF(@old_uk IS NULL, 'SELECT 1', CONCAT('ALTER TABLE appointment DROP INDEX `', @old_uk, '`'));
+PREPARE drop_old_uk FROM @drop_old_uk;
+EXECUTE drop_old_uk;
+DEALLOCATE PREPARE drop_old_uk;
+
+-- Doctor schedules
+ALTER TABLE doctor_profile ADD COLUMN slot_minutes INT;
+
+CREATE TABLE schedule_rule (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    doctor_profile_id BIGINT NOT NULL,
+    type VARCHAR(255),
+    day_of_week VARCHAR(255),
+    override_date DATE,
+    start_time TIME,
+    end_time TIME,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_schedule_rule_doctor_profile FOREIGN KEY (doctor_profile_id) REFERENCES doctor_profile (id)
+) ENGINE=InnoDB;
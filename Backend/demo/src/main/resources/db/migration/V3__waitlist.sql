@@ -0,0 +1,19 @@
+CREATE TABLE waitlist_entry (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    from_date DATE,
+    to_date DATE,
+    status VARCHAR(255),
+    created_at DATETIME(6),
+    offer_date DATE,
+    offer_time TIME,
+    hold_token VARCHAR(255),
+    offer_expires_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_waitlist_entry_patient FOREIGN KEY (patient_id) REFERENCES users (id),
+    CONSTRAINT fk_waitlist_entry_doctor FOREIGN KEY (doctor_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_waitlist_status ON waitlist_entry (status);
+CREATE INDEX idx_waitlist_patient_doctor ON waitlist_entry (patient_id, doctor_id, status);
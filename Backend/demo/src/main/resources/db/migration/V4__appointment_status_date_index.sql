@@ -0,0 +1,2 @@
+-- Drives the scheduled past-appointment transitions
+CREATE INDEX idx_appointment_status_date ON appointment (status, appointment_date, appointment_time, id);
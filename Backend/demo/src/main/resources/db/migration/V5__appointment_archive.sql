@@ -0,0 +1,19 @@
+-- Cold storage for past appointments, filled in chunks by AppointmentArchiver.
+-- Ids are copied from appointment, so there is no AUTO_INCREMENT here.
+CREATE TABLE appointment_archive (
+    id BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    appointment_date DATE,
+    appointment_time TIME,
+    reason VARCHAR(255),
+    status VARCHAR(255),
+    created_at DATETIME(6),
+    archived_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_appointment_archive_patient FOREIGN KEY (patient_id) REFERENCES users (id),
+    CONSTRAINT fk_appointment_archive_doctor FOREIGN KEY (doctor_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_appointment_archive_doctor_day ON appointment_archive (doctor_id, appointment_date, appointment_time, id);
+CREATE INDEX idx_appointment_archive_patient_day ON appointment_archive (patient_id, appointment_date, appointment_time, id);
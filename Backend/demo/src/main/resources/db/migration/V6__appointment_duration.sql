@@ -0,0 +1,3 @@
+-- Appointments carry their own length; existing rows were all 30-minute slots
+ALTER TABLE appointment ADD COLUMN duration_minutes INT NOT NULL DEFAULT 30;
+ALTER TABLE appointment_archive ADD COLUMN duration_minutes INT NOT NULL DEFAULT 30;
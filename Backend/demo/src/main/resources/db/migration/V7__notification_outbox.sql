@@ -0,0 +1,14 @@
+-- Appointment changes waiting to be turned into notifications.
+-- Rows are deleted once dispatched, so the table stays small.
+CREATE TABLE notification_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    event_type VARCHAR(32) NOT NULL,
+    appointment_id BIGINT NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    appointment_date DATE,
+    appointment_time TIME,
+    status VARCHAR(32),
+    created_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
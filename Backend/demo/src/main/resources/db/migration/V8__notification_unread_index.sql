@@ -0,0 +1,3 @@
+-- Bulk mark-read walks the unread rows of one recipient in (created_at, id) order
+CREATE INDEX idx_notification_recipient_unread ON notification (recipient_id, read_status, created_at, id);
+DROP INDEX idx_notification_recipient_read ON notification;
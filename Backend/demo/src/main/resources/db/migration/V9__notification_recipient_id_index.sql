@@ -0,0 +1,2 @@
+-- The notification stream resumes per recipient from the last event id it sent
+CREATE INDEX idx_notification_recipient_id ON notification (recipient_id, id);
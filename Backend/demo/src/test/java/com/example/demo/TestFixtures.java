@@ -0,0 +1,28 @@
+package com.example.demo;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Rows written straight over JDBC for tests against the real schema, so
+ * fixtures don't depend on the services under test.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static long insertUser(JdbcTemplate jdbcTemplate, String email, String role) {
+        jdbcTemplate.update("insert into users (enabled, name, email, password, role) values (1, ?, ?, 'x', ?)",
+                email, email, role);
+        return jdbcTemplate.queryForObject("select id from users where email = ?", Long.class, email);
+    }
+
+    // Each row is patient id, doctor id, date, time and status; 30 minutes, slot held
+    public static void insertAppointments(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into appointment (patient_id, doctor_id, appointment_date,"
+                + " appointment_time, reason, status, slot_active, duration_minutes)"
+                + " values (?, ?, ?, ?, 'checkup', ?, 1, 30)", rows);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.TestcontainersConfiguration;
+
+/**
+ * EXPLAINs the hot queries against the migrated schema in a real MySQL and
+ * checks that each one is served by the index added for it, not a scan.
+ */
+@SpringBootTest(properties = "scheduling.enabled=false")
+@Import(TestcontainersConfiguration.class)
+class IndexUsageTest {
+
+    private static final int DOCTORS = 20;
+    private static final int PATIENTS = 100;
+    private static final int APPOINTMENTS = 3000;
+    private static final int NOTIFICATIONS = 3000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> doctorIds = new ArrayList<>();
+    private final List<Long> patientIds = new ArrayList<>();
+
+    private final LocalDate firstDay = LocalDate.now().minusDays(APPOINTMENTS / DOCTORS);
+
+    @BeforeEach
+    void setUp() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < DOCTORS; i++) {
+            doctorIds.add(TestFixtures.insertUser(jdbcTemplate, "doctor-" + i + "-" + tag + "@example.com", "DOCTOR"));
+        }
+        for (int i = 0; i < PATIENTS; i++) {
+            patientIds.add(TestFixtures.insertUser(jdbcTemplate, "patient-" + i + "-" + tag + "@example.com", "PATIENT"));
+        }
+
+        String[] statuses = { "PENDING", "APPROVED", "COMPLETED", "CANCELLED" };
+        List<Object[]> appointments = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            appointments.add(new Object[] {
+                    patientIds.get(i % PATIENTS), doctorIds.get(i % DOCTORS),
+                    firstDay.plusDays(i / DOCTORS), LocalTime.of(9, 0), statuses[i % statuses.length]
+            });
+        }
+        TestFixtures.insertAppointments(jdbcTemplate, appointments);
+
+        jdbcTemplate.update("insert into notification_event (template, params, created_at) values ('TEXT', 'x', ?)",
+                LocalDateTime.now());
+        long eventId = jdbcTemplate.queryForObject("select max(id) from notification_event", Long.class);
+
+        List<Object[]> receipts = new ArrayList<>();
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            receipts.add(new Object[] {
+                    eventId, patientIds.get(i % PATIENTS), i % 3 == 0, LocalDateTime.now().minusMinutes(i)
+            });
+        }
+        jdbcTemplate.batchUpdate("insert into notification (event_id, recipient_id, audience, read_status, created_at)"
+                + " values (?, ?, 'PATIENT', ?, ?)", receipts);
+
+        List<Long> appointmentIds = jdbcTemplate.queryForList(
+                "select id from appointment where doctor_id in (" + idList(doctorIds) + ")", Long.class);
+        List<Object[]> feedback = new ArrayList<>();
+        for (int i = 0; i < appointmentIds.size(); i += 5) {
+            feedback.add(new Object[] { 4, appointmentIds.get(i), doctorIds.get(i % DOCTORS), patientIds.get(i % PATIENTS) });
+        }
+        jdbcTemplate.batchUpdate("insert into feedback (rating, comment, created_at, appointment_id, doctor_id, patient_id)"
+                + " values (?, 'ok', now(), ?, ?, ?)", feedback);
+
+        jdbcTemplate.execute("analyze table appointment, notification, feedback");
+    }
+
+    @Test
+    void patientAppointmentsByStatus() {
+        assertUses(List.of("idx_appointment_patient_status"),
+                "select id from appointment where patient_id = ? and status = ?",
+                patientIds.get(0), "COMPLETED");
+    }
+
+    @Test
+    void doctorDayByStatus() {
+        assertUses(List.of("idx_appointment_doctor_date_status", "idx_appointment_doctor_day"),
+                "select id from appointment where doctor_id = ? and appointment_date = ? and status = ?",
+                doctorIds.get(0), firstDay, "APPROVED");
+    }
+
+    @Test
+    void unreadCount() {
+        assertUses(List.of("idx_notification_recipient_unread"),
+                "select count(*) from notification where recipient_id = ? and read_status = false",
+                patientIds.get(0));
+    }
+
+    @Test
+    void notificationFeed() {
+        assertUses(List.of("idx_notification_recipient_created"),
+                "select id from notification where recipient_id = ? order by created_at desc, id desc limit 20",
+                patientIds.get(0));
+    }
+
+    @Test
+    void doctorFeedback() {
+        assertUses(List.of("idx_feedback_doctor"),
+                "select rating from feedback where doctor_id = ?",
+                doctorIds.get(0));
+    }
+
+    private void assertUses(List<String> indexes, String sql, Object... args) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("explain " + sql, args);
+
+        assertThat(plan).isNotEmpty();
+        Map<String, Object> row = plan.get(0);
+        assertThat(row.get("type")).as("access type of %s", sql).isNotEqualTo("ALL");
+        assertThat((String) row.get("key")).as("index used by %s", sql).isIn(indexes.toArray());
+    }
+
+    private static String idList(List<Long> ids) {
+        return String.join(", ", ids.stream().map(String::valueOf).toList());
+    }
+}
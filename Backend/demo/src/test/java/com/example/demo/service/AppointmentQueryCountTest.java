@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.TestcontainersConfiguration;
+import com.example.demo.dto.AppointmentResponse;
+import com.example.demo.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Each appointment list loads its rows with a fixed number of statements,
+ * however many rows there are, so the per-row doctor and patient selects
+ * can't creep back in. History lists read the hot table and the archive,
+ * one statement each.
+ */
+@SpringBootTest(properties = {
+        "scheduling.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(TestcontainersConfiguration.class)
+class AppointmentQueryCountTest {
+
+    private static final int APPOINTMENTS = 25;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private String doctorEmail;
+    private String patientEmail;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        doctorEmail = "doctor-" + tag + "@example.com";
+        patientEmail = "patient-" + tag + "@example.com";
+        long doctorId = TestFixtures.insertUser(jdbcTemplate, doctorEmail, "DOCTOR");
+        long patientId = TestFixtures.insertUser(jdbcTemplate, patientEmail, "PATIENT");
+
+        // half completed, half approved, one of them today
+        List<Object[]> rows = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            boolean completed = i % 2 == 1;
+            rows.add(new Object[] {
+                    patientId, doctorId, today.minusDays(i), LocalTime.of(9, 0),
+                    completed ? "COMPLETED" : "APPROVED"
+            });
+        }
+        TestFixtures.insertAppointments(jdbcTemplate, rows);
+    }
+
+    @Test
+    void doctorAppointments() {
+        long statements = listStatements(() -> appointmentService.getDoctorAppointments(doctorEmail),
+                doctorEmail, APPOINTMENTS);
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void patientAppointments() {
+        long statements = listStatements(() -> appointmentService.getPatientAppointments(patientEmail),
+                patientEmail, APPOINTMENTS);
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void completedAppointments() {
+        long statements = listStatements(() -> appointmentService.getCompletedAppointments(patientEmail),
+                patientEmail, APPOINTMENTS / 2);
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void todayAppointmentsForDoctor() {
+        long statements = listStatements(() -> appointmentService.getTodayAppointmentsForDoctor(doctorEmail),
+                null, 1);
+        assertThat(statements).isEqualTo(1);
+    }
+
+    // Statements the call ran beyond looking up the signed-in user
+    private long listStatements(ListCall call, String email, int expectedRows) {
+
+        long lookup = 0;
+        if (email != null) {
+            statistics.clear();
+            userRepository.findByEmail(email);
+            lookup = statistics.getPrepareStatementCount();
+        }
+
+        statistics.clear();
+        List<AppointmentResponse> rows = call.get();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(rows).hasSize(expectedRows);
+        assertThat(rows).allSatisfy(r -> {
+            assertThat(r.getDoctorName()).isNotNull();
+            assertThat(r.getPatientName()).isNotNull();
+        });
+        return statements - lookup;
+    }
+
+    private interface ListCall {
+        List<AppointmentResponse> get();
+    }
+}
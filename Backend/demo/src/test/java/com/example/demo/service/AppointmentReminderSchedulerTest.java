@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.TestcontainersConfiguration;
+
+/**
+ * A reminder goes out only for the rows its claim actually inserted, with
+ * batch rewriting on as in production, so a mix of claimed and unclaimed
+ * rows sends the unclaimed ones exactly once.
+ */
+@SpringBootTest(properties = {
+        "scheduling.enabled=false",
+        "spring.datasource.hikari.data-source-properties.rewriteBatchedStatements=true"
+})
+@Import(TestcontainersConfiguration.class)
+class AppointmentReminderSchedulerTest {
+
+    private static final int OFFSET_MINUTES = 60;
+
+    @Autowired
+    private AppointmentReminderScheduler reminderScheduler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long patientId;
+    private List<Long> appointmentIds;
+    private List<LocalDateTime> starts;
+
+    @BeforeEach
+    void setUp() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        long doctorId = TestFixtures.insertUser(jdbcTemplate, "doctor-" + tag + "@example.com", "DOCTOR");
+        patientId = TestFixtures.insertUser(jdbcTemplate, "patient-" + tag + "@example.com", "PATIENT");
+
+        // inside the hour, so the 60 minute reminder is due
+        LocalDateTime first = LocalDateTime.now().plusMinutes(30).truncatedTo(ChronoUnit.MINUTES);
+        starts = List.of(first, first.plusMinutes(30), first.plusMinutes(60));
+
+        List<Object[]> rows = new ArrayList<>();
+        for (LocalDateTime start : starts) {
+            rows.add(new Object[] { patientId, doctorId, start.toLocalDate(), start.toLocalTime(), "APPROVED" });
+        }
+        TestFixtures.insertAppointments(jdbcTemplate, rows);
+        appointmentIds = jdbcTemplate.queryForList(
+                "select id from appointment where patient_id = ? order by id", Long.class, patientId);
+    }
+
+    @Test
+    void sendsOnlyUnclaimedReminders() {
+        // the middle one was already sent, e.g. by another node
+        LocalDateTime sent = starts.get(1);
+        jdbcTemplate.update("insert into appointment_reminder (appointment_id, appointment_date, appointment_time,"
+                        + " offset_minutes, sent_at) values (?, ?, ?, ?, ?)",
+                appointmentIds.get(1), sent.toLocalDate(), sent.toLocalTime(), OFFSET_MINUTES, LocalDateTime.now());
+
+        reminderScheduler.fire(fired());
+        assertThat(reminders()).isEqualTo(2);
+
+        // all claimed now, so a second firing sends nothing
+        reminderScheduler.fire(fired());
+        assertThat(reminders()).isEqualTo(2);
+    }
+
+    private List<long[]> fired() {
+        List<long[]> fired = new ArrayList<>();
+        for (int i = 0; i < appointmentIds.size(); i++) {
+            fired.add(reminderScheduler.entry(appointmentIds.get(i), OFFSET_MINUTES, starts.get(i)));
+        }
+        return fired;
+    }
+
+    private int reminders() {
+        return jdbcTemplate.queryForObject("select count(*) from notification n"
+                + " join notification_event e on e.id = n.event_id"
+                + " where n.recipient_id = ? and e.template = 'APPOINTMENT_REMINDER'", Integer.class, patientId);
+    }
+}
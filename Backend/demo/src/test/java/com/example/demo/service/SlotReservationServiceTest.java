@@ -0,0 +1,156 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.dto.AppointmentRequest;
+import com.example.demo.entity.Appointment;
+import com.example.demo.entity.Role;
+import com.example.demo.entity.User;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.ArchivedAppointmentRepository;
+import com.example.demo.repository.UserRepository;
+
+/**
+ * Many patients racing for one popular doctor's slot: exactly one of them
+ * may get it.
+ */
+class SlotReservationServiceTest {
+
+    private static final int THREADS = 64;
+
+    private static final Long DOCTOR_ID = 1L;
+    private static final LocalDate DATE = LocalDate.now().plusDays(1);
+    private static final LocalTime TIME = LocalTime.of(9, 0);
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void oneHoldPerSlot() throws Exception {
+        SlotReservationService reservations = new SlotReservationService();
+
+        List<String> tokens = race(() -> reservations.tryHold(DOCTOR_ID, DATE, TIME));
+
+        assertThat(tokens).filteredOn(t -> t != null).hasSize(1);
+    }
+
+    @Test
+    void onlyOneBookingOfAContestedSlotSucceeds() throws Exception {
+
+        User doctor = user(DOCTOR_ID, "doctor@example.com", Role.DOCTOR);
+
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        when(appointmentRepository.findBookedSlotsOn(anyLong(), any())).thenReturn(List.of());
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(DOCTOR_ID)).thenReturn(Optional.of(doctor));
+        when(userRepository.existsById(DOCTOR_ID)).thenReturn(true);
+        when(userRepository.findByEmail(anyString())).thenAnswer(inv ->
+                Optional.of(user(2L, inv.getArgument(0), Role.PATIENT)));
+
+        DoctorScheduleService schedule = mock(DoctorScheduleService.class);
+        when(schedule.slotMinutes(eq(DOCTOR_ID), any())).thenReturn(30);
+        when(schedule.fits(eq(DOCTOR_ID), any(), any(), anyInt())).thenReturn(true);
+
+        AppointmentService service = new AppointmentService(
+                appointmentRepository,
+                userRepository,
+                mock(NotificationOutbox.class),
+                mock(PlatformTransactionManager.class),
+                new SlotAvailabilityIndex(appointmentRepository, userRepository, schedule),
+                schedule,
+                new SlotReservationService(),
+                mock(WaitlistService.class),
+                mock(ArchivedAppointmentRepository.class),
+                mock(AppointmentArchiver.class));
+
+        List<Boolean> booked = race(new Callable<>() {
+            private int patients;
+
+            @Override
+            public Boolean call() {
+                AppointmentRequest request = new AppointmentRequest();
+                request.setDoctorId(DOCTOR_ID);
+                request.setDate(DATE);
+                request.setTime(TIME);
+                try {
+                    service.bookAppointment(request, "patient" + next() + "@example.com");
+                    return true;
+                } catch (RuntimeException e) {
+                    assertThat(e).hasMessage("Slot already booked");
+                    return false;
+                }
+            }
+
+            private synchronized int next() {
+                return ++patients;
+            }
+        });
+
+        assertThat(booked).filteredOn(b -> b).hasSize(1);
+        verify(appointmentRepository, times(1)).save(any(Appointment.class));
+    }
+
+    // Runs the task on every thread at once and collects what each returned
+    private <T> List<T> race(Callable<T> task) throws Exception {
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+
+        List<Future<T>> futures = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                go.await();
+                return task.call();
+            }));
+        }
+
+        assertThat(ready.await(10, TimeUnit.SECONDS)).isTrue();
+        go.countDown();
+
+        List<T> results = new ArrayList<>(THREADS);
+        for (Future<T> f : futures) {
+            results.add(f.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private static User user(Long id, String email, Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setName(email);
+        user.setEmail(email);
+        user.setRole(role);
+        return user;
+    }
+}
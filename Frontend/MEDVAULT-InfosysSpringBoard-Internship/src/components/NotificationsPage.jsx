@@ -59,6 +59,28 @@ const NotificationsPage = () => {
   }, [role]);
 
   const [notifications, setNotifications] = useState(() => readNotificationsLocal());
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  // GET /api/notifications returns one page: { items, nextCursor }
+  const fetchPage = async (token, cursor) => {
+    const resp = await axios.get('/api/notifications', {
+      headers: { Authorization: `Bearer ${token}` },
+      params: cursor ? { cursor } : {}
+    });
+    const data = resp.data || {};
+    return {
+      items: Array.isArray(data) ? data : (data.items || []),
+      nextCursor: Array.isArray(data) ? null : (data.nextCursor || null)
+    };
+  };
+
+  // Reloads from the first page, dropping whatever was paged in
+  const reload = async (token) => {
+    const page = await fetchPage(token, null);
+    setNotifications(page.items);
+    setNextCursor(page.nextCursor);
+  };
 
   useEffect(() => {
   const markAll = async () => {
@@ -87,10 +109,7 @@ const NotificationsPage = () => {
       }
 
       try {
-        const resp = await axios.get('/api/notifications', {
-          headers: { Authorization: `Bearer ${token}` }
-        });
-        setNotifications(resp.data || []);
+        await reload(token);
       } catch  {
         setNotifications(readNotificationsLocal());
       }
@@ -99,9 +118,25 @@ const NotificationsPage = () => {
     fetchServer();
   }, []);
 
+  const handleLoadMore = async () => {
+    const token = localStorage.getItem('token');
+    if (!token || !nextCursor || loadingMore) return;
+
+    setLoadingMore(true);
+    try {
+      const page = await fetchPage(token, nextCursor);
+      setNotifications(prev => [...(Array.isArray(prev) ? prev : []), ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      console.error(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const isUnread = (item) => item.readStatus === false;
-  // Ensure we always operate on an array (server may return unexpected shape)
-  const notificationsList = Array.isArray(notifications) ? notifications : (notifications?.notifications || []);
+  // Ensure we always operate on an array (local storage may hold an unexpected shape)
+  const notificationsList = Array.isArray(notifications) ? notifications : [];
   const unreadCount = notificationsList.filter((item) => isUnread(item)).length;
 
   const mapStatus = (item) => {
@@ -127,20 +162,11 @@ const NotificationsPage = () => {
       return;
     }
 
-    // mark all unread via backend
+    // mark all unread via backend, then refresh
     (async () => {
-      const unread = notifications.filter(n => n.readStatus === false && n.id);
-      for (const n of unread) {
-        try {
-          await axios.post(`/api/notifications/mark-read/${n.id}`, null, { headers: { Authorization: `Bearer ${token}` } });
-        } catch  {
-          // ignore per-item failure
-        }
-      }
-      // refresh
       try {
-        const resp = await axios.get('/api/notifications', { headers: { Authorization: `Bearer ${token}` } });
-        setNotifications(resp.data || []);
+        await axios.post('/api/notifications/mark-all-read', null, { headers: { Authorization: `Bearer ${token}` } });
+        await reload(token);
       } catch  {
         setNotifications(markAllLocalRead());
       }
@@ -151,7 +177,7 @@ const NotificationsPage = () => {
     const token = localStorage.getItem('token');
     if (!token) {
       // fallback to local
-      const list = notifications.map(n => n.id === id ? { ...n, read: true, unread: false } : n);
+      const list = notificationsList.map(n => n.id === id ? { ...n, read: true, unread: false } : n);
       writeNotificationsLocal(list);
       setNotifications(list);
       return;
@@ -159,11 +185,11 @@ const NotificationsPage = () => {
 
     try {
       await axios.post(`/api/notifications/mark-read/${id}`, null, { headers: { Authorization: `Bearer ${token}` } });
-      const resp = await axios.get('/api/notifications', { headers: { Authorization: `Bearer ${token}` } });
-      setNotifications(resp.data || []);
+      // keep the pages already loaded, only this one changes
+      setNotifications(prev => (Array.isArray(prev) ? prev : []).map(n => n.id === id ? { ...n, readStatus: true } : n));
     } catch  {
       // fallback local update
-      const list = notifications.map(n => n.id === id ? { ...n, read: true, unread: false } : n);
+      const list = notificationsList.map(n => n.id === id ? { ...n, read: true, unread: false } : n);
       setNotifications(list);
       writeNotificationsLocal(list);
     }
@@ -220,6 +246,11 @@ const NotificationsPage = () => {
             </article>
           );
         })}
+        {nextCursor && (
+          <button type="button" className="load-more-btn" onClick={handleLoadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </button>
+        )}
       </main>
     </div>
   );